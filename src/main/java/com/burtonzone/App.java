@@ -1,17 +1,30 @@
 package com.burtonzone;
 
+import static java.lang.String.format;
+import static org.javimmutable.collections.util.JImmutables.*;
+
+import com.burtonzone.common.WorkPool;
+import com.burtonzone.election.DistrictMap;
 import com.burtonzone.election.ElectionResult;
+import com.burtonzone.election.ElectionRunner;
 import com.burtonzone.election.ElectionSettings;
+import com.burtonzone.election.Party;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 import java.io.File;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import org.javimmutable.collections.JImmutableList;
 
 public class App
 {
     public enum OutputMode
     {
         Districts,
-        Totals
+        Totals,
+        Deviations
     }
 
     public static void main(String[] args)
@@ -22,8 +35,8 @@ public class App
         final var parties = scenario.getSettings().getParties();
         final var runner = scenario.getRunner();
         final var districts = scenario.getDistricts();
-        final var parallelExecution = config.getBoolean("parallelExecution");
-        final var showDistrictResults = config.getEnum(OutputMode.class, "outputMode") == OutputMode.Districts;
+        final var outputMode = config.getEnum(OutputMode.class, "outputMode");
+        final var showDistrictResults = outputMode == OutputMode.Districts;
         final var numberOfRounds = showDistrictResults ? 1 : config.getInt("numberOfRounds");
 
         System.out.printf("Voting System        : %s%n", scenario.getVotingSystem());
@@ -32,6 +45,7 @@ public class App
         System.out.printf("Total Seats          : %s%n", scenario.getSeats());
         System.out.printf("Max Party Choices    : %d%n", scenario.getSettings().getMaxPartyChoices());
         System.out.printf("Max Candidate Choices: %s%n", scenario.getSettings().getMaxCandidateChoices());
+        System.out.printf("Numeric Mode         : %s%n", scenario.getNumericMode());
         System.out.printf("Mixed Party Vote %%   : %s%n", scenario.getSettings().getVoteType() == ElectionSettings.VoteType.Mixed
                                                           ? String.valueOf(scenario.getSettings().getMixedPartyVotePercentage()) : "n/a");
         System.out.println();
@@ -41,45 +55,113 @@ public class App
         }
         System.out.println();
 
-        for (int roundNumber = 1; roundNumber <= numberOfRounds; ++roundNumber) {
-            try {
-                final var results = runner.runElections(districts.create(factory, parallelExecution));
-                final var headers = results.getReport().getHeaders(parties);
-                for (int i = 0; i < headers.size(); ++i) {
-                    System.out.printf("%2s   %s%n", (i == headers.size() - 1) ? "#" : "", headers.get(i));
-                }
-                if (showDistrictResults) {
-                    for (ElectionResult result : results.getResults()) {
-                        final ResultsReport districtReport = ResultsReport.of(result);
-                        final var rows = districtReport.getRows();
-                        for (int i = 0; i < rows.size(); ++i) {
-                            final var prefix = (i == 0) ? String.valueOf(roundNumber) : "";
-                            System.out.printf("%2s  %s%n", prefix, rows.get(i));
-                        }
-                    }
+        if (outputMode == OutputMode.Deviations) {
+            for (String row : NumericModeReport.compare(config, numberOfRounds)) {
+                System.out.println(row);
+            }
+            return;
+        }
+
+        try (var workPool = scenario.getWorkPool()) {
+            if (workPool.isParallel()) {
+                runRoundsInParallel(workPool, numberOfRounds, roundNumber -> {
+                    final var round = districts.forRound(factory, roundNumber);
+                    return () -> runRound(runner, parties, roundNumber, round, workPool, showDistrictResults);
+                });
+            } else {
+                for (int roundNumber = 1; roundNumber <= numberOfRounds; ++roundNumber) {
+                    final var round = districts.forRound(factory, roundNumber);
+                    printLines(runRound(runner, parties, roundNumber, round, workPool, showDistrictResults));
                 }
-                final var rows = results.getReport().getRows();
-                for (int i = 0; i < rows.size(); ++i) {
-                    String prefix = "";
-                    if (i == 0) {
-                        prefix = showDistrictResults ? "TL" : "" + roundNumber;
+            }
+        }
+    }
+
+    /**
+     * Runs several rounds at once while their districts share the work pool, so that maps
+     * with only a few districts still keep every core busy.  Rounds are started in order by
+     * this thread (see {@link DistrictMap#forRound}) and printed in order as they finish.
+     * No more than a few rounds per core are in flight so the output of a long run is never
+     * buffered.
+     */
+    private static void runRoundsInParallel(WorkPool workPool,
+                                            int numberOfRounds,
+                                            IntFunction<Supplier<JImmutableList<String>>> roundStarter)
+    {
+        final var maxPendingRounds = 2 * workPool.getParallelism();
+        final var pendingRounds = new ArrayDeque<CompletableFuture<JImmutableList<String>>>();
+        for (int roundNumber = 1; roundNumber <= numberOfRounds; ++roundNumber) {
+            if (pendingRounds.size() >= maxPendingRounds) {
+                printLines(pendingRounds.remove().join());
+            }
+            pendingRounds.add(workPool.supplyAsync(roundStarter.apply(roundNumber)));
+        }
+        while (!pendingRounds.isEmpty()) {
+            printLines(pendingRounds.remove().join());
+        }
+    }
+
+    private static JImmutableList<String> runRound(ElectionRunner runner,
+                                                   JImmutableList<Party> parties,
+                                                   int roundNumber,
+                                                   DistrictMap.Round round,
+                                                   WorkPool workPool,
+                                                   boolean showDistrictResults)
+    {
+        final JImmutableList.Builder<String> lines = listBuilder();
+        try {
+            final ResultsReport report;
+            JImmutableList<ElectionResult> districtResults = list();
+            if (showDistrictResults) {
+                final var results = runner.runElections(round.create(workPool));
+                report = results.getReport();
+                districtResults = results.getResults();
+            } else {
+                report = runner.reportElections(round, workPool);
+            }
+            final var headers = report.getHeaders(parties);
+            for (int i = 0; i < headers.size(); ++i) {
+                lines.add(format("%2s   %s", (i == headers.size() - 1) ? "#" : "", headers.get(i)));
+            }
+            if (showDistrictResults) {
+                for (ElectionResult result : districtResults) {
+                    final ResultsReport districtReport = ResultsReport.of(result);
+                    final var rows = districtReport.getRows();
+                    for (int i = 0; i < rows.size(); ++i) {
+                        final var prefix = (i == 0) ? String.valueOf(roundNumber) : "";
+                        lines.add(format("%2s  %s", prefix, rows.get(i)));
                     }
-                    System.out.printf("%2s  %s%n", prefix, rows.get(i));
                 }
-                if (showDistrictResults) {
-                    System.out.println();
+            }
+            final var rows = report.getRows();
+            for (int i = 0; i < rows.size(); ++i) {
+                String prefix = "";
+                if (i == 0) {
+                    prefix = showDistrictResults ? "TL" : "" + roundNumber;
                 }
-                System.out.println();
+                lines.add(format("%2s  %s", prefix, rows.get(i)));
+            }
+            if (showDistrictResults) {
+                lines.add("");
+            }
+            lines.add("");
 
-                for (String line : results.getReport().getCoalitionGrid(45)) {
-                    System.out.println("      " + line);
-                }
-                System.out.println();
-                System.out.println();
-            } catch (ResultsReport.UnfilledSeatsException ex) {
-                System.out.printf("%2d  UNSOLVED: %s%n", roundNumber, ex.getMessage());
-                System.out.println();
+            for (String line : report.getCoalitionGrid(45)) {
+                lines.add("      " + line);
             }
+            lines.add("");
+            lines.add("");
+        } catch (ResultsReport.UnfilledSeatsException ex) {
+            lines.add(format("%2d  UNSOLVED: %s", roundNumber, ex.getMessage()));
+            lines.add("");
+        }
+        return lines.build();
+    }
+
+    private static void printLines(JImmutableList<String> lines)
+    {
+        for (String line : lines) {
+            System.out.println(line);
         }
     }
 
@@ -12,6 +12,11 @@ public enum ElectionRunners
 {
     STV(StvRunner::new),
 
+    /**
+     * Same as STV but counts using a prefix trie of the ballots.
+     */
+    STV_Trie(StvRunner::trie),
+
     /**
      * Each voter gets one vote per seat and candidates with the highest vote counts are elected.
      */
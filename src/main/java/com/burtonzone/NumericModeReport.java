@@ -0,0 +1,146 @@
+package com.burtonzone;
+
+import static com.burtonzone.common.Decimal.ZERO;
+import static java.lang.String.format;
+import static org.javimmutable.collections.util.JImmutables.*;
+
+import com.burtonzone.common.Decimal;
+import com.burtonzone.common.WorkPool;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigValueFactory;
+import java.math.RoundingMode;
+import java.util.function.Function;
+import lombok.Value;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+
+/**
+ * Runs the same seeded scenario once for every {@link Decimal.Mode} and reports the largest
+ * differences in seats and metrics between {@link Decimal.Mode#Exact} and each of the faster modes.
+ */
+public class NumericModeReport
+{
+    private static final JImmutableList<Metric> Metrics = list(
+        new Metric("eff", r -> percent(r.getEffectiveVoteScore(), r.getVotes())),
+        new Metric("err", r -> r.computeErrors().times(Decimal.HUNDRED)),
+        new Metric("avg-waste", r -> r.getAverageWasted().times(Decimal.HUNDRED)),
+        new Metric("avg-err", r -> r.getAverageError().times(Decimal.HUNDRED)),
+        new Metric("avg-eff", r -> r.getAverageEffectiveVoteScore().times(Decimal.HUNDRED)));
+
+    public static JImmutableList<String> compare(Config config,
+                                                 int numberOfRounds)
+    {
+        final var originalMode = Decimal.getMode();
+        final var seed = config.hasPath("randomSeed") ? config.getLong("randomSeed") : System.currentTimeMillis();
+        JImmutableMap<Decimal.Mode, JImmutableList<ResultsReport>> reports = insertOrderMap();
+        try {
+            for (Decimal.Mode mode : Decimal.Mode.values()) {
+                final var modeConfig = config
+                    .withValue("randomSeed", ConfigValueFactory.fromAnyRef(seed))
+                    .withValue("numericMode", ConfigValueFactory.fromAnyRef(mode.name()));
+                reports = reports.assign(mode, runRounds(Scenario.fromConfig(modeConfig), numberOfRounds));
+            }
+            Decimal.setMode(Decimal.Mode.Exact);
+            return formatDeviations(reports, seed, numberOfRounds);
+        } finally {
+            Decimal.setMode(originalMode);
+        }
+    }
+
+    /**
+     * Every mode sees exactly the same random numbers because each district of each round
+     * draws from its own stream split from the seed by round and district number, whatever
+     * order the rounds run in.  Rounds and districts are still run one at a time here since
+     * the numeric mode is shared by the whole JVM.  Rounds that fail to fill all seats are
+     * recorded as null.
+     */
+    private static JImmutableList<ResultsReport> runRounds(Scenario scenario,
+                                                           int numberOfRounds)
+    {
+        final JImmutableList.Builder<ResultsReport> answer = listBuilder();
+        for (int roundNumber = 1; roundNumber <= numberOfRounds; ++roundNumber) {
+            final var round = scenario.getDistricts().forRound(scenario.getFactory(), roundNumber);
+            try {
+                answer.add(scenario.getRunner().reportElections(round, WorkPool.Sequential));
+            } catch (ResultsReport.UnfilledSeatsException ex) {
+                answer.add((ResultsReport)null);
+            }
+        }
+        return answer.build();
+    }
+
+    private static JImmutableList<String> formatDeviations(JImmutableMap<Decimal.Mode, JImmutableList<ResultsReport>> reports,
+                                                           long seed,
+                                                           int numberOfRounds)
+    {
+        final JImmutableList.Builder<String> answer = listBuilder();
+        final var exact = reports.get(Decimal.Mode.Exact);
+        answer.add(format("Maximum deviation from %s over %d rounds using randomSeed %d", Decimal.Mode.Exact, numberOfRounds, seed));
+        final var header = new StringBuilder(format("%-14s %6s %6s %7s", "mode", "seats", "rounds", "skipped"));
+        for (Metric metric : Metrics) {
+            header.append(format(" %11s", metric.getName()));
+        }
+        answer.add(header.toString());
+        for (var entry : reports) {
+            if (entry.getKey() == Decimal.Mode.Exact) {
+                continue;
+            }
+            var maxSeats = 0;
+            var roundsWithSeatChanges = 0;
+            var skipped = 0;
+            var maxMetrics = Metrics.transform(m -> ZERO);
+            for (int i = 0; i < exact.size(); ++i) {
+                final var expected = exact.get(i);
+                final var actual = entry.getValue().get(i);
+                if (expected == null || actual == null) {
+                    skipped += 1;
+                    continue;
+                }
+                final var seats = seatDifference(expected, actual);
+                maxSeats = Math.max(maxSeats, seats);
+                if (seats > 0) {
+                    roundsWithSeatChanges += 1;
+                }
+                for (int m = 0; m < Metrics.size(); ++m) {
+                    final var metric = Metrics.get(m).getValue();
+                    final var diff = metric.apply(expected).minus(metric.apply(actual)).abs();
+                    if (diff.isGreaterThan(maxMetrics.get(m))) {
+                        maxMetrics = maxMetrics.assign(m, diff);
+                    }
+                }
+            }
+            final var row = new StringBuilder(format("%-14s %6d %6d %7d", entry.getKey(), maxSeats, roundsWithSeatChanges, skipped));
+            for (Decimal diff : maxMetrics) {
+                row.append(format(" %10s%%", diff.toBigDecimal().setScale(6, RoundingMode.HALF_UP)));
+            }
+            answer.add(row.toString());
+        }
+        return answer.build();
+    }
+
+    /**
+     * Total number of seats that changed hands between parties.
+     */
+    private static int seatDifference(ResultsReport expected,
+                                      ResultsReport actual)
+    {
+        var changed = 0;
+        for (var party : expected.getParties().union(actual.getParties())) {
+            changed += Math.abs(expected.getPartySeats().get(party).toInt() - actual.getPartySeats().get(party).toInt());
+        }
+        return changed / 2;
+    }
+
+    private static Decimal percent(Decimal value,
+                                   int total)
+    {
+        return total == 0 ? ZERO : value.times(Decimal.HUNDRED).divide(total);
+    }
+
+    @Value
+    private static class Metric
+    {
+        String name;
+        Function<ResultsReport, Decimal> value;
+    }
+}
@@ -9,7 +9,6 @@ import com.burtonzone.common.Averager;
 import com.burtonzone.common.Counter;
 import com.burtonzone.common.DataUtils;
 import com.burtonzone.common.Decimal;
-import com.burtonzone.election.BallotBox;
 import com.burtonzone.election.ElectionResult;
 import com.burtonzone.election.Party;
 import java.io.PrintWriter;
@@ -17,6 +16,7 @@ import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Comparator;
+import java.util.stream.Collector;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Value;
@@ -51,8 +51,8 @@ public class ResultsReport
     Counter<Party> partySeats = new Counter<>();
     @Builder.Default
     Counter<Party> partyListSeats = new Counter<>();
-    @Builder.Default
-    BallotBox allBallots = BallotBox.Empty;
+    int numberOfBallots;
+    int numberOfChoices;
 
     public static ResultsReport of(ElectionResult result)
     {
@@ -71,64 +71,28 @@ public class ResultsReport
             .partySeats(result.getPartyElectedCounts())
             .partyListSeats(result.getPartyListSeats())
             .winningParty(computeWinningParty(result.getPartyElectedCounts()))
-            .allBallots(result.getEffectiveBallots())
+            .numberOfBallots(result.getEffectiveBallots().size())
+            .numberOfChoices(result.getEffectiveBallots().getNumberOfChoices())
             .build();
     }
 
     public static ResultsReport of(Iterable<ElectionResult> results)
     {
-        final var averageError = new Averager();
-        final var averageWasted = new Averager();
-        final var averageEffectiveVoteScore = new Averager();
-        var parties = JImmutables.<Party>insertOrderSet();
-        int seats = 0;
-        int elected = 0;
-        int wasted = 0;
-        int votes = 0;
-        var partyVotes = new Counter<Party>();
-        var partySeats = new Counter<Party>();
-        var partyListSeats = new Counter<Party>();
-        var allBallots = BallotBox.builder();
-        var partyElectedCounts = new Counter<Party>();
-        var effectiveVoteScore = ZERO;
+        final var accumulator = new Accumulator();
         for (ElectionResult result : results) {
-            parties = parties.insertAll(result.getElection().getParties());
-            seats = seats + result.getElection().getSeats();
-            elected = elected + result.getElectedCount();
-            final Decimal electionTotalVotes = result.getElection().getTotalVotes();
-            votes = votes + electionTotalVotes.toInt();
-            wasted = wasted + result.getWasted().toInt();
-            effectiveVoteScore = effectiveVoteScore.plus(result.getEffectiveVoteScore());
-            partyVotes = partyVotes.add(result.getPartyVotes());
-            partySeats = partySeats.add(result.getPartyElectedCounts());
-            partyElectedCounts = partyElectedCounts.add(result.getPartyElectedCounts());
-            partyListSeats = partyListSeats.add(result.getPartyListSeats());
-            allBallots.add(result.getEffectiveBallots());
-            final var weight = new Decimal(result.getElection().getSeats());
-            averageWasted.add(result.getWasted().divide(electionTotalVotes), weight);
-            averageEffectiveVoteScore.add(result.getEffectiveVoteScore().divide(electionTotalVotes), weight);
-            averageError.add(result.computeErrors(), weight);
-        }
-        if (seats != elected) {
-            throw new UnfilledSeatsException(seats, elected);
+            accumulator.add(result);
         }
-        return builder()
-            .parties(parties)
-            .seats(seats)
-            .elected(elected)
-            .votes(votes)
-            .wasted(wasted)
-            .winningParty(computeWinningParty(partySeats))
-            .effectiveVoteScore(effectiveVoteScore)
-            .averageEffectiveVoteScore(averageEffectiveVoteScore.average())
-            .averageError(averageError.average())
-            .averageWasted(averageWasted.average())
-            .partyVotes(partyVotes)
-            .partySeats(partySeats)
-            .partyListSeats(partyListSeats)
-            .winningParty(computeWinningParty(partyElectedCounts))
-            .allBallots(allBallots.build())
-            .build();
+        return accumulator.build();
+    }
+
+    /**
+     * Reduces a stream of results into a report without holding the results themselves.
+     * Partial reports are combined in encounter order so a parallel stream produces the
+     * same report as a sequential one.
+     */
+    public static Collector<ElectionResult, Accumulator, ResultsReport> collector()
+    {
+        return Collector.of(Accumulator::new, Accumulator::add, Accumulator::add, Accumulator::build);
     }
 
     public int getMajority()
@@ -136,9 +100,13 @@ public class ResultsReport
         return seats / 2 + 1;
     }
 
+    /**
+     * Average number of choices per distinct ballot.  Distinct ballots are counted within each
+     * election, so identical ballots cast in different districts count once per district.
+     */
     public Decimal getAverageNumberOfChoices()
     {
-        return allBallots.getAverageNumberOfChoices();
+        return (numberOfBallots == 0) ? ZERO : new Decimal(numberOfChoices).divide(numberOfBallots);
     }
 
     public Decimal computeEffectiveNumberOfParties()
@@ -154,7 +122,7 @@ public class ResultsReport
     }
 
     // https://en.wikipedia.org/wiki/Gallagher_index
-    private Decimal computeErrors()
+    public Decimal computeErrors()
     {
         final var totalSeats = partySeats.getTotal();
         final var totalVotes = partyVotes.getTotal();
@@ -481,6 +449,95 @@ public class ResultsReport
             .getKey();
     }
 
+    /**
+     * Mutable reduction of any number of results into a report.  Only the running totals are
+     * kept so each result can be discarded as soon as it has been added.
+     */
+    public static class Accumulator
+    {
+        private final Averager averageError = new Averager();
+        private final Averager averageWasted = new Averager();
+        private final Averager averageEffectiveVoteScore = new Averager();
+        private final Counter.Builder<Party> partyVotes = Counter.builder();
+        private final Counter.Builder<Party> partySeats = Counter.builder();
+        private final Counter.Builder<Party> partyListSeats = Counter.builder();
+        private JImmutableSet<Party> parties = JImmutables.insertOrderSet();
+        private int seats;
+        private int elected;
+        private int wasted;
+        private int votes;
+        private int numberOfBallots;
+        private int numberOfChoices;
+        private Decimal effectiveVoteScore = ZERO;
+
+        public void add(ElectionResult result)
+        {
+            parties = parties.insertAll(result.getElection().getParties());
+            seats = seats + result.getElection().getSeats();
+            elected = elected + result.getElectedCount();
+            final Decimal electionTotalVotes = result.getElection().getTotalVotes();
+            votes = votes + electionTotalVotes.toInt();
+            wasted = wasted + result.getWasted().toInt();
+            effectiveVoteScore = effectiveVoteScore.plus(result.getEffectiveVoteScore());
+            partyVotes.add(result.getPartyVotes());
+            partySeats.add(result.getPartyElectedCounts());
+            partyListSeats.add(result.getPartyListSeats());
+            numberOfBallots = numberOfBallots + result.getEffectiveBallots().size();
+            numberOfChoices = numberOfChoices + result.getEffectiveBallots().getNumberOfChoices();
+            final var weight = new Decimal(result.getElection().getSeats());
+            averageWasted.add(result.getWasted().divide(electionTotalVotes), weight);
+            averageEffectiveVoteScore.add(result.getEffectiveVoteScore().divide(electionTotalVotes), weight);
+            averageError.add(result.computeErrors(), weight);
+        }
+
+        /**
+         * Adds the totals of another accumulator whose results all follow the ones already added.
+         */
+        public Accumulator add(Accumulator other)
+        {
+            parties = parties.insertAll(other.parties);
+            seats = seats + other.seats;
+            elected = elected + other.elected;
+            votes = votes + other.votes;
+            wasted = wasted + other.wasted;
+            effectiveVoteScore = effectiveVoteScore.plus(other.effectiveVoteScore);
+            partyVotes.add(other.partyVotes);
+            partySeats.add(other.partySeats);
+            partyListSeats.add(other.partyListSeats);
+            numberOfBallots = numberOfBallots + other.numberOfBallots;
+            numberOfChoices = numberOfChoices + other.numberOfChoices;
+            averageWasted.add(other.averageWasted);
+            averageEffectiveVoteScore.add(other.averageEffectiveVoteScore);
+            averageError.add(other.averageError);
+            return this;
+        }
+
+        public ResultsReport build()
+        {
+            if (seats != elected) {
+                throw new UnfilledSeatsException(seats, elected);
+            }
+            final var seatCounts = partySeats.build();
+            return builder()
+                .parties(parties)
+                .seats(seats)
+                .elected(elected)
+                .votes(votes)
+                .wasted(wasted)
+                .winningParty(computeWinningParty(seatCounts))
+                .effectiveVoteScore(effectiveVoteScore)
+                .averageEffectiveVoteScore(averageEffectiveVoteScore.average())
+                .averageError(averageError.average())
+                .averageWasted(averageWasted.average())
+                .partyVotes(partyVotes.build())
+                .partySeats(seatCounts)
+                .partyListSeats(partyListSeats.build())
+                .numberOfBallots(numberOfBallots)
+                .numberOfChoices(numberOfChoices)
+                .build();
+        }
+    }
+
     public static class UnfilledSeatsException
         extends RuntimeException
     {
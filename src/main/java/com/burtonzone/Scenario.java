@@ -1,6 +1,8 @@
 package com.burtonzone;
 
+import com.burtonzone.common.Decimal;
 import com.burtonzone.common.Rand;
+import com.burtonzone.common.WorkPool;
 import com.burtonzone.election.DistrictMap;
 import com.burtonzone.election.ElectionFactory;
 import com.burtonzone.election.ElectionRunner;
@@ -16,6 +18,7 @@ import lombok.Value;
 @Builder
 public class Scenario
 {
+    Decimal.Mode numericMode;
     IssueSpace issues;
     ElectionSettings settings;
     ElectionFactory factory;
@@ -23,9 +26,18 @@ public class Scenario
     DistrictMaps districtMap;
     ElectionRunner runner;
     DistrictMap districts;
+    WorkPool workPool;
 
+    /**
+     * Also sets the JVM wide {@link Decimal#setMode numeric mode} so only one scenario can be
+     * in use at a time.  When parallelExecution is set every stage shares one work pool
+     * with the configured parallelism.  Its threads are only started when it is first used
+     * and the caller should close it once the scenario is finished.
+     */
     public static Scenario fromConfig(Config config)
     {
+        final var numericMode = config.getEnum(Decimal.Mode.class, "numericMode");
+        Decimal.setMode(numericMode);
         final var rand = config.hasPath("randomSeed") ? new Rand(config.getLong("randomSeed")) : new Rand();
         final var issueSpace = config.getEnum(IssueSpaces.class, "issueSpace").create(rand);
         final var numParties = config.getInt("numberOfParties");
@@ -33,6 +45,8 @@ public class Scenario
         final var maxPartyChoices = config.getInt("maxPartyChoices");
         final var mixedPartyVotePercentage = config.getInt("mixedPartyVotePercentage");
         final var voteType = config.getEnum(ElectionSettings.VoteType.class, "voteType");
+        final var voterModel = config.getEnum(ElectionSettings.VoterModel.class, "voterModel");
+        final var votersPerSeat = config.getInt("votersPerSeat");
         final var factory = new PositionalElectionFactory(rand, issueSpace);
         final var parties = factory.createParties(numParties);
         final var electionSettings =
@@ -42,10 +56,13 @@ public class Scenario
                 .maxPartyChoices(maxPartyChoices > 0 ? maxPartyChoices : (1 + numParties) / 2)
                 .mixedPartyVotePercentage(mixedPartyVotePercentage)
                 .voteType(voteType)
+                .voterModel(voterModel)
+                .votersPerSeat(votersPerSeat)
                 .build();
         final var electionRunner = config.getEnum(ElectionRunners.class, "electionRunner");
         final var districtMap = config.getEnum(DistrictMaps.class, "districtMap");
         return builder()
+            .numericMode(numericMode)
             .issues(issueSpace)
             .settings(electionSettings)
             .factory(factory)
@@ -53,6 +70,7 @@ public class Scenario
             .districtMap(districtMap)
             .runner(electionRunner.create())
             .districts(districtMap.create(electionSettings))
+            .workPool(config.getBoolean("parallelExecution") ? new WorkPool(config.getInt("parallelism")) : WorkPool.Sequential)
             .build();
     }
 
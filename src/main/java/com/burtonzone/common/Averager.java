@@ -26,6 +26,12 @@ public class Averager
         add(new Decimal(value));
     }
 
+    public void add(Averager other)
+    {
+        sum = sum.plus(other.sum);
+        count = count.plus(other.count);
+    }
+
     public Decimal average()
     {
         return sum.divide(count).root();
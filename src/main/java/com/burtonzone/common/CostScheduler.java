@@ -0,0 +1,124 @@
+package com.burtonzone.common;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.javimmutable.collections.JImmutableList;
+
+/**
+ * Longest processing time first scheduling for parallel streams.  A parallel stream over a
+ * list splits it into halves by count so when costs are skewed one thread can be left with
+ * the most expensive items at the end.  These streams visit items from most to least costly
+ * and split off one item at a time, so idle threads always steal the most costly item
+ * that has not been started yet.
+ */
+public final class CostScheduler
+{
+    private CostScheduler()
+    {
+    }
+
+    /**
+     * Parallel stream of the items ordered from most to least costly.  Items with equal cost
+     * keep their order from the list.
+     */
+    public static <T> Stream<T> longestFirst(JImmutableList<T> items,
+                                             ToLongFunction<T> cost)
+    {
+        return indexes(items, cost).mapToObj(items::get);
+    }
+
+    /**
+     * Maps every item in parallel, starting with the most costly, and returns the results in
+     * the same order as the items.
+     */
+    public static <T, R> JImmutableList<R> map(JImmutableList<T> items,
+                                               ToLongFunction<T> cost,
+                                               Function<T, R> mapper)
+    {
+        final var results = new Object[items.size()];
+        indexes(items, cost).forEach(i -> results[i] = mapper.apply(items.get(i)));
+        final JImmutableList.Builder<R> answer = listBuilder();
+        for (Object result : results) {
+            @SuppressWarnings("unchecked")
+            final var value = (R)result;
+            answer.add(value);
+        }
+        return answer.build();
+    }
+
+    private static <T> IntStream indexes(JImmutableList<T> items,
+                                         ToLongFunction<T> cost)
+    {
+        final var costs = new long[items.size()];
+        for (int i = 0; i < costs.length; ++i) {
+            costs[i] = cost.applyAsLong(items.get(i));
+        }
+        final var order = IntStream.range(0, costs.length)
+            .boxed()
+            .sorted(Comparator.comparingLong((Integer i) -> costs[i]).reversed())
+            .mapToInt(Integer::intValue)
+            .toArray();
+        return StreamSupport.intStream(new OrderSpliterator(order, 0, order.length), true);
+    }
+
+    /**
+     * Splits by peeling off the next index as a spliterator of its own.  Forked tasks are
+     * stolen oldest first so the most costly remaining index is always taken next.
+     */
+    private static class OrderSpliterator
+        implements Spliterator.OfInt
+    {
+        private final int[] order;
+        private final int limit;
+        private int next;
+
+        private OrderSpliterator(int[] order,
+                                 int next,
+                                 int limit)
+        {
+            this.order = order;
+            this.next = next;
+            this.limit = limit;
+        }
+
+        @Override
+        public OfInt trySplit()
+        {
+            if (limit - next < 2) {
+                return null;
+            }
+            next += 1;
+            return new OrderSpliterator(order, next - 1, next);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action)
+        {
+            if (next >= limit) {
+                return false;
+            }
+            action.accept(order[next++]);
+            return true;
+        }
+
+        @Override
+        public long estimateSize()
+        {
+            return limit - next;
+        }
+
+        @Override
+        public int characteristics()
+        {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+        }
+    }
+}
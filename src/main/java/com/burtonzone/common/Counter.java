@@ -5,12 +5,13 @@ import static com.burtonzone.common.Decimal.ZERO;
 import static org.javimmutable.collections.util.JImmutables.*;
 
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collector;
 import javax.annotation.Nonnull;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
-import org.javimmutable.collections.GenericCollector;
 import org.javimmutable.collections.IterableStreamable;
 import org.javimmutable.collections.JImmutableList;
 import org.javimmutable.collections.JImmutableMap;
@@ -33,63 +34,76 @@ public class Counter<T>
         this.counts = counts;
     }
 
+    public static <T> Builder<T> builder()
+    {
+        return new Builder<>();
+    }
+
+    /**
+     * Creates a {@link Builder} initialized with the counts in this counter.
+     */
+    public Builder<T> editor()
+    {
+        return new Builder<T>().add(this);
+    }
+
     public static <T> Counter<T> count(Iterable<T> values)
     {
-        var counter = new Counter<T>();
+        var counter = new Builder<T>();
         for (T value : values) {
-            counter = counter.inc(value);
+            counter.inc(value);
         }
-        return counter;
+        return counter.build();
     }
 
     public static <T, U> Counter<U> count(Iterable<T> values,
                                           Function<T, U> extractor)
     {
-        var counter = new Counter<U>();
+        var counter = new Builder<U>();
         for (T value : values) {
-            counter = counter.inc(extractor.apply(value));
+            counter.inc(extractor.apply(value));
         }
-        return counter;
+        return counter.build();
     }
 
     public static <T, U> Counter<U> sumInts(Iterable<T> values,
                                             Function<T, U> keyExtractor,
                                             Function<T, Integer> countExtractor)
     {
-        var counter = new Counter<U>();
+        var counter = new Builder<U>();
         for (T value : values) {
-            counter = counter.add(keyExtractor.apply(value), countExtractor.apply(value));
+            counter.add(keyExtractor.apply(value), countExtractor.apply(value));
         }
-        return counter;
+        return counter.build();
     }
 
     public static <T, U> Counter<U> sum(Iterable<T> values,
                                         Function<T, U> keyExtractor,
                                         Function<T, Decimal> countExtractor)
     {
-        var counter = new Counter<U>();
+        var counter = new Builder<U>();
         for (T value : values) {
-            counter = counter.add(keyExtractor.apply(value), countExtractor.apply(value));
+            counter.add(keyExtractor.apply(value), countExtractor.apply(value));
         }
-        return counter;
+        return counter.build();
     }
 
     public static <T> Collector<T, ?, Counter<T>> collectCounts()
     {
-        final Counter<T> empty = new Counter<>();
-        return GenericCollector.unordered(empty,
-                                          empty,
-                                          Counter::isEmpty,
-                                          Counter::inc,
-                                          Counter::add);
+        return Collector.of(Builder<T>::new,
+                            Builder::inc,
+                            Builder::add,
+                            Builder::build,
+                            Collector.Characteristics.UNORDERED);
     }
 
     public static <T> Collector<JImmutableMap.Entry<T, Decimal>, ?, Counter<T>> collectEntrySum()
     {
-        final Counter<T> empty = new Counter<>();
-        return GenericCollector.unordered(empty, empty, Counter::isEmpty,
-                                          (sum, e) -> sum.add(e.getKey(), e.getValue()),
-                                          Counter::add);
+        return Collector.of(Builder<T>::new,
+                            (sum, e) -> sum.add(e.getKey(), e.getValue()),
+                            Builder::add,
+                            Builder::build,
+                            Collector.Characteristics.UNORDERED);
     }
 
     /**
@@ -97,12 +111,11 @@ public class Counter<T>
      */
     public static <T> Collector<Counter<T>, ?, Counter<T>> collectSum()
     {
-        final Counter<T> empty = new Counter<>();
-        return GenericCollector.unordered(empty,
-                                          empty,
-                                          Counter::isEmpty,
-                                          Counter::add,
-                                          Counter::add);
+        return Collector.of(Builder<T>::new,
+                            Builder::add,
+                            Builder::add,
+                            Builder::build,
+                            Collector.Characteristics.UNORDERED);
     }
 
     public boolean isEmpty()
@@ -185,11 +198,11 @@ public class Counter<T>
 
     public Counter<T> times(Decimal multiple)
     {
-        var answer = counts;
+        final JImmutableMap.Builder<T, Decimal> answer = mapBuilder();
         for (var e : counts) {
-            answer = answer.assign(e.getKey(), e.getValue().times(multiple));
+            answer.add(e.getKey(), e.getValue().times(multiple));
         }
-        return new Counter<>(answer);
+        return new Counter<>(answer.build());
     }
 
     public Decimal getTotal()
@@ -232,18 +245,18 @@ public class Counter<T>
 
     public Counter<T> toRatio()
     {
-        JImmutableMap<T, Decimal> answer = map();
+        final JImmutableMap.Builder<T, Decimal> answer = mapBuilder();
         var total = getTotal();
         if (total.isZero()) {
             for (var e : counts) {
-                answer = answer.assign(e.getKey(), ZERO);
+                answer.add(e.getKey(), ZERO);
             }
         } else {
             for (var e : counts) {
-                answer = answer.assign(e.getKey(), e.getValue().divide(total));
+                answer.add(e.getKey(), e.getValue().divide(total));
             }
         }
-        return new Counter<>(answer);
+        return new Counter<>(answer.build());
     }
 
     @Nonnull
@@ -283,6 +296,67 @@ public class Counter<T>
         return counts.toString();
     }
 
+    /**
+     * Mutable accumulator for building a {@link Counter} without creating a new persistent
+     * map for every change.  Counts are collected in a {@link HashMap} and frozen into an
+     * immutable {@link Counter} once when {@link #build()} is called.
+     */
+    public static class Builder<T>
+    {
+        private final Map<T, Decimal> counts = new HashMap<>();
+
+        public boolean isEmpty()
+        {
+            return counts.isEmpty();
+        }
+
+        public Decimal get(T key)
+        {
+            return counts.getOrDefault(key, ZERO);
+        }
+
+        public Builder<T> inc(T key)
+        {
+            return add(key, ONE);
+        }
+
+        public Builder<T> add(T key,
+                              Decimal count)
+        {
+            if (!count.isNegOrZero()) {
+                counts.merge(key, count, Decimal::plus);
+            }
+            return this;
+        }
+
+        public Builder<T> add(T key,
+                              int count)
+        {
+            return add(key, new Decimal(count));
+        }
+
+        public Builder<T> add(Counter<T> other)
+        {
+            for (var e : other.counts) {
+                add(e.getKey(), e.getValue());
+            }
+            return this;
+        }
+
+        public Builder<T> add(Builder<T> other)
+        {
+            for (var e : other.counts.entrySet()) {
+                add(e.getKey(), e.getValue());
+            }
+            return this;
+        }
+
+        public Counter<T> build()
+        {
+            return counts.isEmpty() ? new Counter<>() : new Counter<>(map(counts));
+        }
+    }
+
     @Getter
     @AllArgsConstructor
     public static class Entry<T>
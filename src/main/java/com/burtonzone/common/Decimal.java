@@ -4,26 +4,66 @@ import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
 import java.util.stream.Collector;
-import lombok.EqualsAndHashCode;
 import org.javimmutable.collections.GenericCollector;
 
-@EqualsAndHashCode
 public class Decimal
     implements Comparable<Decimal>
 {
+    public enum Mode
+    {
+        /**
+         * All arithmetic is performed using {@link BigDecimal}.
+         */
+        Exact,
+        /**
+         * Arithmetic is performed on longs scaled by 10^PRECISION.  Any operation that would
+         * overflow a long falls back to {@link BigDecimal}.
+         */
+        FixedPoint,
+        /**
+         * Arithmetic is performed using IEEE doubles with no rounding between operations.
+         * Values are only rounded to PRECISION digits when converted, compared for equality,
+         * or hashed.  Fastest but results can drift slightly from the other modes.
+         */
+        FloatingPoint
+    }
+
     private static final int PRECISION = 8;
     private static final int DIVISION_PRECISION = 4 * PRECISION;
-    private static final BigDecimal ZERO_BOUND = new BigDecimal(5).scaleByPowerOfTen(-PRECISION);
+    private static final long SCALE = 100_000_000L;
+    private static final long HALF_SCALE = SCALE / 2;
+    private static final long ZERO_BOUND = 5;
+    private static final double REAL_ZERO_BOUND = (ZERO_BOUND + 0.5) / SCALE;
+    /**
+     * Doubles scaled by SCALE below this bound are within 1/128 of the exact scaled value so the
+     * HALF_UP rounding of a fraction more than HALF_MARGIN away from one half is exact.
+     */
+    private static final double MAX_EXACT_SCALED = 0x1p46;
+    private static final double HALF_MARGIN = 0.02;
+    /**
+     * Returned by {@link #roundedUnits} when a value has to be rounded using {@link BigDecimal}.
+     */
+    static final long NO_UNITS = Long.MIN_VALUE;
     public static final Decimal ZERO = new Decimal(0);
     public static final Decimal ONE = new Decimal(1);
     public static final Decimal TWO = new Decimal(2);
     public static final Decimal HUNDRED = new Decimal(100);
 
-    private final BigDecimal value;
+    private static volatile Mode mode = Mode.Exact;
+
+    /**
+     * Values that fit in a long are always stored as units of 10^-PRECISION with big set to null.
+     * Only values too large for a long are stored as a BigDecimal.  This keeps the representation
+     * of any given value unique regardless of which {@link Mode} produced it.  The exception is
+     * {@link Mode#FloatingPoint} which stores the raw bits of a double in units and sets floating.
+     */
+    private final long units;
+    private final BigDecimal big;
+    private final boolean floating;
 
     public Decimal(int value)
     {
-        this(new BigDecimal(value));
+        this(value * SCALE, null);
     }
 
     public Decimal(String value)
@@ -33,7 +73,49 @@ public class Decimal
 
     public Decimal(BigDecimal value)
     {
-        this.value = value.setScale(PRECISION, RoundingMode.HALF_UP);
+        final var scaled = value.setScale(PRECISION, RoundingMode.HALF_UP);
+        final var unscaled = scaled.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            this.units = unscaled.longValue();
+            this.big = null;
+        } else {
+            this.units = 0;
+            this.big = scaled;
+        }
+        this.floating = false;
+    }
+
+    private Decimal(long units,
+                    BigDecimal big)
+    {
+        this.units = units;
+        this.big = big;
+        this.floating = false;
+    }
+
+    private Decimal(double real)
+    {
+        if (Double.isNaN(real) || Double.isInfinite(real)) {
+            throw new ArithmeticException("value out of range: " + real);
+        }
+        this.units = Double.doubleToRawLongBits(real);
+        this.big = null;
+        this.floating = true;
+    }
+
+    public static Mode getMode()
+    {
+        return mode;
+    }
+
+    /**
+     * The mode is shared by every thread in the JVM, so only one scenario (see
+     * {@code Scenario.fromConfig}) can be used at a time.  Scenarios that use different
+     * modes must run one after another, as the deviation report does.
+     */
+    public static void setMode(Mode newMode)
+    {
+        mode = newMode;
     }
 
     public static Collector<Decimal, ?, Decimal> collectSum()
@@ -47,27 +129,65 @@ public class Decimal
 
     public Decimal plus(Decimal other)
     {
-        return new Decimal(value.add(other.value));
+        if (mode == Mode.FloatingPoint) {
+            return new Decimal(toDouble() + other.toDouble());
+        }
+        if (isFixedPoint(other)) {
+            final long sum = units + other.units;
+            if (((units ^ sum) & (other.units ^ sum)) >= 0) {
+                return new Decimal(sum, null);
+            }
+        }
+        return new Decimal(toBigDecimal().add(other.toBigDecimal()));
     }
 
     public Decimal plus(int val)
     {
-        return new Decimal(value.add(new BigDecimal(val)));
+        return plus(new Decimal(val));
     }
 
     public Decimal minus(Decimal other)
     {
-        return new Decimal(value.subtract(other.value));
+        if (mode == Mode.FloatingPoint) {
+            return new Decimal(toDouble() - other.toDouble());
+        }
+        if (isFixedPoint(other)) {
+            final long difference = units - other.units;
+            if (((units ^ other.units) & (units ^ difference)) >= 0) {
+                return new Decimal(difference, null);
+            }
+        }
+        return new Decimal(toBigDecimal().subtract(other.toBigDecimal()));
     }
 
     public Decimal times(Decimal other)
     {
-        return new Decimal(value.multiply(other.value, MathContext.UNLIMITED));
+        if (mode == Mode.FloatingPoint) {
+            return new Decimal(toDouble() * other.toDouble());
+        }
+        if (isFixedPoint(other)) {
+            try {
+                return new Decimal(multiplyUnits(units, other.units), null);
+            } catch (ArithmeticException ignored) {
+                // overflow so use BigDecimal instead
+            }
+        }
+        return new Decimal(toBigDecimal().multiply(other.toBigDecimal(), MathContext.UNLIMITED));
     }
 
     public Decimal divide(Decimal divisor)
     {
-        return new Decimal(value.divide(divisor.value, DIVISION_PRECISION, RoundingMode.HALF_UP));
+        if (mode == Mode.FloatingPoint) {
+            return new Decimal(toDouble() / divisor.toDouble());
+        }
+        if (isFixedPoint(divisor) && divisor.units != 0) {
+            try {
+                return new Decimal(divideUnits(units, divisor.units), null);
+            } catch (ArithmeticException ignored) {
+                // overflow so use BigDecimal instead
+            }
+        }
+        return new Decimal(toBigDecimal().divide(divisor.toBigDecimal(), PRECISION, RoundingMode.HALF_UP));
     }
 
     public Decimal divide(int divisor)
@@ -87,7 +207,15 @@ public class Decimal
 
     public Decimal abs()
     {
-        return value.signum() >= 0 ? this : new Decimal(value.negate());
+        if (floating) {
+            return toDouble() >= 0 ? this : new Decimal(-toDouble());
+        }
+        if (big == null && units != Long.MIN_VALUE) {
+            return units >= 0 ? this : new Decimal(-units, null);
+        } else {
+            final var value = toBigDecimal();
+            return value.signum() >= 0 ? this : new Decimal(value.negate());
+        }
     }
 
     public Decimal square()
@@ -97,22 +225,62 @@ public class Decimal
 
     public Decimal root()
     {
-        return new Decimal(value.sqrt(new MathContext(DIVISION_PRECISION, RoundingMode.HALF_UP)));
+        if (mode == Mode.FloatingPoint) {
+            return new Decimal(Math.sqrt(toDouble()));
+        }
+        return new Decimal(toBigDecimal().sqrt(new MathContext(DIVISION_PRECISION, RoundingMode.HALF_UP)));
     }
 
     public Decimal round()
     {
-        return new Decimal(value.setScale(0, RoundingMode.HALF_UP));
+        if (mode == Mode.FloatingPoint) {
+            final double value = toRoundedDouble();
+            return new Decimal(Math.copySign(Math.floor(Math.abs(value) + 0.5), value));
+        }
+        if (isFixedPoint(this)) {
+            final long fraction = units % SCALE;
+            final long whole = units - fraction;
+            if (fraction >= HALF_SCALE) {
+                return new Decimal(whole + SCALE, null);
+            } else if (fraction <= -HALF_SCALE) {
+                return new Decimal(whole - SCALE, null);
+            } else {
+                return new Decimal(whole, null);
+            }
+        }
+        return new Decimal(toBigDecimal().setScale(0, RoundingMode.HALF_UP));
     }
 
     public Decimal roundUp()
     {
-        return new Decimal(value.setScale(0, RoundingMode.UP));
+        if (mode == Mode.FloatingPoint) {
+            final double value = toRoundedDouble();
+            return new Decimal(Math.copySign(Math.ceil(Math.abs(value)), value));
+        }
+        if (isFixedPoint(this)) {
+            final long fraction = units % SCALE;
+            final long whole = units - fraction;
+            if (fraction > 0) {
+                return new Decimal(whole + SCALE, null);
+            } else if (fraction < 0) {
+                return new Decimal(whole - SCALE, null);
+            } else {
+                return this;
+            }
+        }
+        return new Decimal(toBigDecimal().setScale(0, RoundingMode.UP));
     }
 
     public Decimal roundDown()
     {
-        return new Decimal(value.setScale(0, RoundingMode.DOWN));
+        if (mode == Mode.FloatingPoint) {
+            final double value = toRoundedDouble();
+            return new Decimal(Math.copySign(Math.floor(Math.abs(value)), value));
+        }
+        if (isFixedPoint(this)) {
+            return new Decimal(units - units % SCALE, null);
+        }
+        return new Decimal(toBigDecimal().setScale(0, RoundingMode.DOWN));
     }
 
     public boolean isGreaterThan(Decimal other)
@@ -137,34 +305,231 @@ public class Decimal
 
     public boolean isZero()
     {
-        var diff = minus(ZERO).abs();
-        return diff.value.compareTo(ZERO_BOUND) <= 0;
+        if (floating) {
+            return Math.abs(toDouble()) < REAL_ZERO_BOUND;
+        }
+        return big == null && units >= -ZERO_BOUND && units <= ZERO_BOUND;
     }
 
     public boolean isNegOrZero()
     {
-        return value.signum() <= 0 || isZero();
+        if (floating) {
+            return toDouble() < REAL_ZERO_BOUND;
+        }
+        return big == null ? units <= ZERO_BOUND : big.signum() <= 0;
     }
 
     public BigDecimal toBigDecimal()
     {
-        return value;
+        if (floating) {
+            return new BigDecimal(toDouble()).setScale(PRECISION, RoundingMode.HALF_UP);
+        }
+        return big == null ? BigDecimal.valueOf(units, PRECISION) : big;
+    }
+
+    public double toDouble()
+    {
+        if (floating) {
+            return Double.longBitsToDouble(units);
+        }
+        return big == null ? (double)units / SCALE : big.doubleValue();
     }
 
     public int toInt()
     {
-        return value.toBigInteger().intValue();
+        if (floating) {
+            return (int)toRoundedDouble();
+        }
+        return big == null ? (int)(units / SCALE) : big.toBigInteger().intValue();
     }
 
+    /**
+     * Floating point values are compared after rounding to PRECISION digits, the same as
+     * {@link #equals}, so values that are equal always compare as zero.
+     */
     @Override
     public int compareTo(Decimal other)
     {
-        return value.compareTo(other.value);
+        if (floating || other.floating) {
+            final long a = canonicalUnits();
+            final long b = other.canonicalUnits();
+            if (a != NO_UNITS && b != NO_UNITS) {
+                return Long.compare(a, b);
+            }
+            return toBigDecimal().compareTo(other.toBigDecimal());
+        }
+        if (big == null && other.big == null) {
+            return Long.compare(units, other.units);
+        } else {
+            return toBigDecimal().compareTo(other.toBigDecimal());
+        }
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof Decimal)) {
+            return false;
+        }
+        final var other = (Decimal)o;
+        if (floating || other.floating) {
+            final long a = canonicalUnits();
+            final long b = other.canonicalUnits();
+            if (a != NO_UNITS || b != NO_UNITS) {
+                return a == b;
+            }
+            return toBigDecimal().equals(other.toBigDecimal());
+        }
+        if (big == null) {
+            return other.big == null && units == other.units;
+        } else {
+            return big.equals(other.big);
+        }
+    }
+
+    @Override
+    public int hashCode()
+    {
+        final long canonical = canonicalUnits();
+        return canonical != NO_UNITS ? Long.hashCode(canonical) : toBigDecimal().hashCode();
     }
 
     @Override
     public String toString()
     {
-        return value.toPlainString();
+        return toBigDecimal().toPlainString();
+    }
+
+    /**
+     * True if this value is stored as a long number of units.  Used by {@link Tally}.
+     */
+    boolean hasUnits()
+    {
+        return big == null && !floating;
+    }
+
+    long getUnits()
+    {
+        return units;
+    }
+
+    static Decimal fromUnits(long units)
+    {
+        return new Decimal(units, null);
+    }
+
+    static Decimal fromDouble(double real)
+    {
+        return new Decimal(real);
+    }
+
+    private boolean isFixedPoint(Decimal other)
+    {
+        return mode == Mode.FixedPoint && big == null && other.big == null && !floating && !other.floating;
+    }
+
+    /**
+     * The double value rounded HALF_UP to PRECISION digits so that conversions to whole numbers
+     * agree with the other modes.  Without it 2.9999999999999996 would round down to 2.
+     */
+    private double toRoundedDouble()
+    {
+        final double value = toDouble();
+        return Math.copySign(Math.floor(Math.abs(value) * SCALE + 0.5) / SCALE, value);
+    }
+
+    /**
+     * Units of the value as a fixed point value would store them, or {@link #NO_UNITS} if it
+     * would be stored as a {@link BigDecimal}.  Floating point values compare equal when they
+     * round to the same value at PRECISION digits.
+     */
+    private long canonicalUnits()
+    {
+        if (floating) {
+            return roundedUnits(toDouble());
+        }
+        return big == null ? units : NO_UNITS;
+    }
+
+    /**
+     * Rounds a double HALF_UP to units of PRECISION digits exactly as {@link #toBigDecimal} does
+     * but without creating a {@link BigDecimal} unless the value is very large or its scaled
+     * fraction is too close to one half to decide using doubles.
+     *
+     * @return the units or {@link #NO_UNITS} if they do not fit in a long
+     */
+    static long roundedUnits(double value)
+    {
+        final double scaled = Math.abs(value) * SCALE;
+        if (scaled < MAX_EXACT_SCALED) {
+            final double whole = Math.floor(scaled);
+            final double fraction = scaled - whole;
+            if (Math.abs(fraction - 0.5) > HALF_MARGIN) {
+                final long rounded = (long)whole + (fraction > 0.5 ? 1 : 0);
+                return value < 0 ? -rounded : rounded;
+            }
+        }
+        final var unscaled = new BigDecimal(value).setScale(PRECISION, RoundingMode.HALF_UP).unscaledValue();
+        return unscaled.bitLength() < Long.SIZE ? unscaled.longValue() : NO_UNITS;
+    }
+
+    /**
+     * Multiplies two scaled values rounding HALF_UP to PRECISION digits exactly as BigDecimal would.
+     * Splitting each value into whole and fractional parts keeps every intermediate product within
+     * range of a long unless the result itself overflows.
+     *
+     * @throws ArithmeticException if the result does not fit in a long
+     */
+    private static long multiplyUnits(long a,
+                                      long b)
+    {
+        final boolean negative = (a < 0) != (b < 0);
+        a = Math.absExact(a);
+        b = Math.absExact(b);
+        final long aWhole = a / SCALE;
+        final long aFraction = a % SCALE;
+        final long bWhole = b / SCALE;
+        final long bFraction = b % SCALE;
+        long answer = Math.multiplyExact(Math.multiplyExact(aWhole, bWhole), SCALE);
+        answer = Math.addExact(answer, Math.multiplyExact(aWhole, bFraction));
+        answer = Math.addExact(answer, Math.multiplyExact(aFraction, bWhole));
+        answer = Math.addExact(answer, (aFraction * bFraction + HALF_SCALE) / SCALE);
+        return negative ? -answer : answer;
+    }
+
+    /**
+     * Divides two scaled values rounding HALF_UP to PRECISION digits.  Uses long division one
+     * digit at a time when the remainder is too large to scale in a single step.
+     *
+     * @throws ArithmeticException if the result does not fit in a long
+     */
+    private static long divideUnits(long a,
+                                    long b)
+    {
+        final boolean negative = (a < 0) != (b < 0);
+        a = Math.absExact(a);
+        b = Math.absExact(b);
+        long remainder = a % b;
+        long fraction;
+        if (remainder <= Long.MAX_VALUE / SCALE) {
+            final long scaled = remainder * SCALE;
+            fraction = scaled / b;
+            remainder = scaled % b;
+        } else {
+            fraction = 0;
+            for (int i = 0; i < PRECISION; ++i) {
+                remainder = Math.multiplyExact(remainder, 10L);
+                fraction = 10 * fraction + remainder / b;
+                remainder = remainder % b;
+            }
+        }
+        if (remainder >= b - remainder) {
+            fraction += 1;
+        }
+        final long answer = Math.addExact(Math.multiplyExact(a / b, SCALE), fraction);
+        return negative ? -answer : answer;
     }
 }
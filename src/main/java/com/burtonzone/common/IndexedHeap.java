@@ -0,0 +1,145 @@
+package com.burtonzone.common;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of ordinals (0 to capacity-1) whose priorities can change after they are added.
+ * The heap records the position of every ordinal so that it can be moved to its new position
+ * by {@link #update} or deleted by {@link #remove} in logarithmic time.  The ordinal that
+ * the {@link OrdinalComparator} orders first is always at the top.
+ */
+public class IndexedHeap
+{
+    @FunctionalInterface
+    public interface OrdinalComparator
+    {
+        int compare(int a,
+                    int b);
+    }
+
+    private final OrdinalComparator comparator;
+    private final int[] heap;
+    private final int[] positions;
+    private int size;
+
+    public IndexedHeap(int capacity,
+                       OrdinalComparator comparator)
+    {
+        this.comparator = comparator;
+        heap = new int[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public boolean contains(int ordinal)
+    {
+        return positions[ordinal] >= 0;
+    }
+
+    /**
+     * @return the ordinal ordered first by the comparator
+     * @throws IllegalStateException if the heap is empty
+     */
+    public int peek()
+    {
+        if (size == 0) {
+            throw new IllegalStateException("heap is empty");
+        }
+        return heap[0];
+    }
+
+    public void add(int ordinal)
+    {
+        if (contains(ordinal)) {
+            throw new IllegalArgumentException("ordinal already in heap: " + ordinal);
+        }
+        heap[size] = ordinal;
+        positions[ordinal] = size;
+        size += 1;
+        siftUp(size - 1);
+    }
+
+    /**
+     * Restores heap order after the priority of ordinal has changed in either direction.
+     * Adds the ordinal if it is not already in the heap.  Must be called after every change
+     * since heap order can only be restored when a single ordinal is out of place.
+     */
+    public void update(int ordinal)
+    {
+        if (!contains(ordinal)) {
+            add(ordinal);
+        } else {
+            final var position = positions[ordinal];
+            siftUp(position);
+            siftDown(positions[ordinal]);
+        }
+    }
+
+    public void remove(int ordinal)
+    {
+        final var position = positions[ordinal];
+        if (position < 0) {
+            return;
+        }
+        size -= 1;
+        positions[ordinal] = -1;
+        if (position < size) {
+            final var last = heap[size];
+            heap[position] = last;
+            positions[last] = position;
+            siftUp(position);
+            siftDown(positions[last]);
+        }
+    }
+
+    private void siftUp(int position)
+    {
+        final var ordinal = heap[position];
+        while (position > 0) {
+            final var parent = (position - 1) / 2;
+            if (comparator.compare(ordinal, heap[parent]) >= 0) {
+                break;
+            }
+            move(heap[parent], position);
+            position = parent;
+        }
+        move(ordinal, position);
+    }
+
+    private void siftDown(int position)
+    {
+        final var ordinal = heap[position];
+        while (true) {
+            var child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && comparator.compare(heap[child + 1], heap[child]) < 0) {
+                child += 1;
+            }
+            if (comparator.compare(heap[child], ordinal) >= 0) {
+                break;
+            }
+            move(heap[child], position);
+            position = child;
+        }
+        move(ordinal, position);
+    }
+
+    private void move(int ordinal,
+                      int position)
+    {
+        heap[position] = ordinal;
+        positions[ordinal] = position;
+    }
+}
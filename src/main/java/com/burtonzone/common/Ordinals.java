@@ -0,0 +1,147 @@
+package com.burtonzone.common;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.javimmutable.collections.IterableStreamable;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.SplitableIterator;
+
+/**
+ * Assigns a dense integer ordinal (0 to size-1) to each value in a small closed set so that
+ * per-value data can be stored in primitive arrays rather than maps.  Ordinals are assigned
+ * in the order values are first added to the {@link Builder}.
+ */
+public class Ordinals<T>
+    implements IterableStreamable<T>
+{
+    private final JImmutableList<T> values;
+    private final Map<T, Integer> ordinals;
+
+    private Ordinals(JImmutableList<T> values,
+                     Map<T, Integer> ordinals)
+    {
+        this.values = values;
+        this.ordinals = ordinals;
+    }
+
+    public static <T> Builder<T> builder()
+    {
+        return new Builder<>();
+    }
+
+    /**
+     * Creates a {@link Builder} that assigns new ordinals after all of the ones in this object.
+     */
+    public Builder<T> editor()
+    {
+        return new Builder<T>().addAll(values);
+    }
+
+    public int size()
+    {
+        return values.size();
+    }
+
+    public T get(int ordinal)
+    {
+        return values.get(ordinal);
+    }
+
+    public boolean contains(T value)
+    {
+        return ordinals.containsKey(value);
+    }
+
+    /**
+     * @throws IllegalArgumentException if value was never assigned an ordinal
+     */
+    public int ordinal(T value)
+    {
+        final var answer = ordinals.get(value);
+        if (answer == null) {
+            throw new IllegalArgumentException("no ordinal for " + value);
+        }
+        return answer;
+    }
+
+    /**
+     * Creates an array mapping every ordinal in this object to the ordinal of the same value in target.
+     *
+     * @throws IllegalArgumentException if any value has no ordinal in target
+     */
+    public int[] mapTo(Ordinals<T> target)
+    {
+        final var answer = new int[values.size()];
+        for (int ordinal = 0; ordinal < answer.length; ++ordinal) {
+            answer[ordinal] = target == this ? ordinal : target.ordinal(values.get(ordinal));
+        }
+        return answer;
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<T> iterator()
+    {
+        return values.iterator();
+    }
+
+    @Override
+    public int getSpliteratorCharacteristics()
+    {
+        return values.getSpliteratorCharacteristics();
+    }
+
+    public static class Builder<T>
+    {
+        private final List<T> values = new ArrayList<>();
+        private final Map<T, Integer> ordinals = new HashMap<>();
+
+        public Builder<T> add(T value)
+        {
+            ordinal(value);
+            return this;
+        }
+
+        /**
+         * Returns the ordinal of value, assigning the next available one if value is new.
+         */
+        public int ordinal(T value)
+        {
+            final var ordinal = ordinals.size();
+            final var existing = ordinals.putIfAbsent(value, ordinal);
+            if (existing != null) {
+                return existing;
+            }
+            values.add(value);
+            return ordinal;
+        }
+
+        public int size()
+        {
+            return ordinals.size();
+        }
+
+        public T get(int ordinal)
+        {
+            return values.get(ordinal);
+        }
+
+        public Builder<T> addAll(Iterable<? extends T> values)
+        {
+            for (T value : values) {
+                add(value);
+            }
+            return this;
+        }
+
+        public Ordinals<T> build()
+        {
+            return new Ordinals<>(list(values), new HashMap<>(ordinals));
+        }
+    }
+}
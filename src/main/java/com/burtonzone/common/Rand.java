@@ -1,12 +1,24 @@
 package com.burtonzone.common;
 
-import java.util.Random;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.Getter;
 import org.javimmutable.collections.JImmutableList;
 
+/**
+ * Source of random numbers for a single thread.  Code that runs in parallel should give each
+ * task its own stream using {@link #split} so that the results are the same no matter how
+ * many threads are used or in what order the tasks run.
+ */
 public class Rand
 {
-    private final Random random;
+    private static final long GoldenGamma = 0x9e3779b97f4a7c15L;
+    private static final long MaxWays = Long.MAX_VALUE / 2;
+    private static final double NormalApproximationMean = 30;
+    private static final Map<Long, long[]> CumulativeTables = new ConcurrentHashMap<>();
+
+    private final SplittableRandom random;
     @Getter
     private final long seed;
 
@@ -17,14 +29,17 @@ public class Rand
 
     public Rand(long seed)
     {
-        this(new Random(seed), seed);
+        this.random = new SplittableRandom(seed);
+        this.seed = seed;
     }
 
-    public Rand(Random random,
-                long seed)
+    /**
+     * Creates an independent stream whose seed depends only on this stream's seed and the key.
+     * Numbers already drawn from this stream do not affect the new stream.
+     */
+    public Rand split(long key)
     {
-        this.random = random;
-        this.seed = seed;
+        return new Rand(mix64(seed + GoldenGamma * (key + 1)));
     }
 
     public int nextIndex(int collectionSize)
@@ -48,19 +63,51 @@ public class Rand
         }
     }
 
+    /**
+     * Returns the rounded average of bias uniform integers from min to max (inclusive) so
+     * higher bias values favor the middle of the range.  The distribution of that average is
+     * computed once per range size and bias and sampled with a single random number.
+     */
     public int nextInt(int min,
                        int max,
                        int bias)
     {
         if (max <= min || bias <= 0) {
             return min;
+        } else if (bias == 1) {
+            return min + random.nextInt(max - min + 1);
         } else {
-            var sum = 0;
-            for (int i = 1; i <= bias; ++i) {
-                sum += random.nextInt(max - min + 1);
+            final var cumulative = cumulativeCounts(max - min + 1, bias);
+            if (cumulative == null) {
+                return averagedInt(min, max, bias);
+            }
+            final var draw = random.nextLong(cumulative[cumulative.length - 1]);
+            var low = 0;
+            var high = cumulative.length - 1;
+            while (low < high) {
+                final var mid = (low + high) >>> 1;
+                if (cumulative[mid] > draw) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
             }
-            return min + (sum + (bias / 2)) / bias;
+            return min + low;
+        }
+    }
+
+    /**
+     * Direct calculation of the distribution sampled by {@link #nextInt(int, int, int)}.
+     */
+    int averagedInt(int min,
+                    int max,
+                    int bias)
+    {
+        var sum = 0;
+        for (int i = 1; i <= bias; ++i) {
+            sum += random.nextInt(max - min + 1);
         }
+        return min + (sum + (bias / 2)) / bias;
     }
 
     public <T> T nextElement(JImmutableList<T> list)
@@ -80,4 +127,117 @@ public class Rand
     {
         return random.nextBoolean();
     }
+
+    /**
+     * Number of successes in trials independent trials that each succeed with the given
+     * probability.  Counted directly when few successes or failures are expected, otherwise
+     * approximated by a rounded normal distribution with the same mean and variance.
+     */
+    public int nextBinomial(int trials,
+                            double probability)
+    {
+        if (trials <= 0 || probability <= 0) {
+            return 0;
+        } else if (probability >= 1) {
+            return trials;
+        } else if (probability > 0.5) {
+            return trials - nextBinomial(trials, 1 - probability);
+        }
+        final var mean = trials * probability;
+        if (mean < NormalApproximationMean) {
+            // waiting time method: count how many geometric gaps fit within the trials
+            final var logFailure = Math.log1p(-probability);
+            var successes = 0;
+            var position = 0.0;
+            while (true) {
+                position += Math.floor(Math.log1p(-random.nextDouble()) / logFailure) + 1;
+                if (position > trials) {
+                    return successes;
+                }
+                successes += 1;
+            }
+        }
+        final var deviation = Math.sqrt(mean * (1 - probability));
+        final var answer = Math.round(mean + deviation * nextGaussian());
+        return (int)Math.max(0, Math.min(trials, answer));
+    }
+
+    /**
+     * Standard normal value using the Marsaglia polar method.
+     */
+    private double nextGaussian()
+    {
+        while (true) {
+            final var u = 2 * random.nextDouble() - 1;
+            final var v = 2 * random.nextDouble() - 1;
+            final var s = u * u + v * v;
+            if (s > 0 && s < 1) {
+                return u * Math.sqrt(-2 * Math.log(s) / s);
+            }
+        }
+    }
+
+    /**
+     * Element i of the table is the number of ways (out of range^bias) that bias uniform
+     * values from 0 to range-1 average (rounded as in {@link #averagedInt}) to i or less.
+     * Returns null when the number of ways is too large for a long.
+     */
+    public static long[] cumulativeCounts(int range,
+                                          int bias)
+    {
+        final var key = ((long)range << 32) | bias;
+        final var table = CumulativeTables.get(key);
+        if (table != null) {
+            return table.length == 0 ? null : table;
+        }
+        var ways = new long[]{1};
+        var combinations = 1L;
+        for (int i = 1; i <= bias; ++i) {
+            if (combinations > MaxWays / range) {
+                CumulativeTables.put(key, new long[0]);
+                return null;
+            }
+            combinations *= range;
+            ways = addUniform(ways, range);
+        }
+        final var answer = new long[range];
+        var total = 0L;
+        for (int sum = 0; sum < ways.length; ++sum) {
+            total += ways[sum];
+            answer[(sum + (bias / 2)) / bias] = total;
+        }
+        CumulativeTables.put(key, answer);
+        return answer;
+    }
+
+    /**
+     * Convolves the number of ways to reach each sum with one more uniform value from 0 to
+     * range-1.  Each new count is the total of a sliding window of range old counts.
+     */
+    private static long[] addUniform(long[] ways,
+                                     int range)
+    {
+        final var answer = new long[ways.length + range - 1];
+        var window = 0L;
+        for (int sum = 0; sum < answer.length; ++sum) {
+            if (sum < ways.length) {
+                window += ways[sum];
+            }
+            if (sum - range >= 0) {
+                window -= ways[sum - range];
+            }
+            answer[sum] = window;
+        }
+        return answer;
+    }
+
+    /**
+     * The SplitMix64 finalizer.  Spreads the bits of nearby seeds so their streams are unrelated.
+     */
+    private static long mix64(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
 }
@@ -0,0 +1,142 @@
+package com.burtonzone.common;
+
+import static com.burtonzone.common.Decimal.ZERO;
+
+import java.util.Arrays;
+
+/**
+ * Mutable array of {@link Decimal} sums indexed by {@link Ordinals} ordinal.  Sums are kept as
+ * primitive longs of {@link Decimal} units (or doubles in {@link Decimal.Mode#FloatingPoint}) so
+ * adding a vote is a single array update.  Since adding units is exact the sums are identical to
+ * adding the {@link Decimal} values themselves.  A slot whose sum overflows a long falls back to
+ * {@link Decimal} arithmetic.
+ * <p>
+ * Like {@link Counter} an amount that is zero or negative is ignored and a slot is only
+ * considered counted once a positive amount has been added to it.
+ */
+public class Tally
+{
+    private final boolean floating;
+    private final long[] units;
+    private final double[] reals;
+    private final boolean[] counted;
+    private Decimal[] overflow;
+
+    public Tally(int size)
+    {
+        floating = Decimal.getMode() == Decimal.Mode.FloatingPoint;
+        units = floating ? null : new long[size];
+        reals = floating ? new double[size] : null;
+        counted = new boolean[size];
+    }
+
+    public int size()
+    {
+        return counted.length;
+    }
+
+    public boolean isCounted(int ordinal)
+    {
+        return counted[ordinal];
+    }
+
+    public Tally add(int ordinal,
+                     Decimal amount)
+    {
+        if (amount.isNegOrZero()) {
+            return this;
+        }
+        counted[ordinal] = true;
+        if (floating) {
+            reals[ordinal] += amount.toDouble();
+        } else if (amount.hasUnits() && (overflow == null || overflow[ordinal] == null)) {
+            final long sum = units[ordinal] + amount.getUnits();
+            if (sum >= 0) {
+                units[ordinal] = sum;
+            } else {
+                setOverflow(ordinal, Decimal.fromUnits(units[ordinal]).plus(amount));
+            }
+        } else {
+            setOverflow(ordinal, get(ordinal).plus(amount));
+        }
+        return this;
+    }
+
+    public Decimal get(int ordinal)
+    {
+        if (!counted[ordinal]) {
+            return ZERO;
+        } else if (floating) {
+            return Decimal.fromDouble(reals[ordinal]);
+        } else if (overflow != null && overflow[ordinal] != null) {
+            return overflow[ordinal];
+        } else {
+            return Decimal.fromUnits(units[ordinal]);
+        }
+    }
+
+    /**
+     * Compares the sums in two slots without creating {@link Decimal} objects when possible.
+     */
+    public int compare(int a,
+                       int b)
+    {
+        if (floating) {
+            final long x = Decimal.roundedUnits(reals[a]);
+            final long y = Decimal.roundedUnits(reals[b]);
+            if (x != Decimal.NO_UNITS && y != Decimal.NO_UNITS) {
+                return Long.compare(x, y);
+            }
+            return get(a).compareTo(get(b));
+        } else if (overflow == null || (overflow[a] == null && overflow[b] == null)) {
+            return Long.compare(units[a], units[b]);
+        } else {
+            return get(a).compareTo(get(b));
+        }
+    }
+
+    public Decimal getTotal()
+    {
+        var total = ZERO;
+        for (int ordinal = 0; ordinal < counted.length; ++ordinal) {
+            if (counted[ordinal]) {
+                total = total.plus(get(ordinal));
+            }
+        }
+        return total;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(counted, false);
+        if (floating) {
+            Arrays.fill(reals, 0.0);
+        } else {
+            Arrays.fill(units, 0L);
+            overflow = null;
+        }
+    }
+
+    /**
+     * Creates a {@link Counter} containing every counted slot keyed by its value in ordinals.
+     */
+    public <T> Counter<T> toCounter(Ordinals<T> ordinals)
+    {
+        final var answer = Counter.<T>builder();
+        for (int ordinal = 0; ordinal < counted.length; ++ordinal) {
+            if (counted[ordinal]) {
+                answer.add(ordinals.get(ordinal), get(ordinal));
+            }
+        }
+        return answer.build();
+    }
+
+    private void setOverflow(int ordinal,
+                             Decimal value)
+    {
+        if (overflow == null) {
+            overflow = new Decimal[counted.length];
+        }
+        overflow[ordinal] = value;
+    }
+}
@@ -0,0 +1,149 @@
+package com.burtonzone.common;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+import lombok.Value;
+
+/**
+ * Execution context shared by every generation and counting stage of a simulation.  Parallel
+ * streams forked by a task running in the pool (district creation, counting, regional MMP
+ * results) stay in the pool and steal work from each other instead of competing for the
+ * common pool.
+ * <p>
+ * A pool created from a parallelism only starts its fork/join pool when it is first used and
+ * shuts it down when closed.  Code embedding the simulation can instead wrap a pool of its own,
+ * which is never shut down by {@link #close}.  {@link #Sequential} runs every stage on the
+ * calling thread.
+ */
+public class WorkPool
+    implements AutoCloseable
+{
+    public static final WorkPool Sequential = new WorkPool(false, 1, null);
+
+    private final boolean parallel;
+    private final int parallelism;
+    private final boolean owned;
+    private ForkJoinPool pool;
+
+    /**
+     * @param parallelism number of worker threads, zero for one per available processor
+     */
+    public WorkPool(int parallelism)
+    {
+        this(true, validParallelism(parallelism), null);
+    }
+
+    /**
+     * Runs every stage in a pool owned by the caller.
+     */
+    public WorkPool(ForkJoinPool pool)
+    {
+        this(true, pool.getParallelism(), pool);
+    }
+
+    private WorkPool(boolean parallel,
+                     int parallelism,
+                     ForkJoinPool pool)
+    {
+        this.parallel = parallel;
+        this.parallelism = parallelism;
+        this.owned = pool == null;
+        this.pool = pool;
+    }
+
+    /**
+     * False for {@link #Sequential}, in which case stages should not use parallel streams.
+     */
+    public boolean isParallel()
+    {
+        return parallel;
+    }
+
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task)
+    {
+        if (!parallel) {
+            return CompletableFuture.completedFuture(task.get());
+        }
+        return CompletableFuture.supplyAsync(task, pool());
+    }
+
+    /**
+     * Runs the task in the pool and waits for its result.  A task invoked from a thread that
+     * is already working for the pool runs directly on that thread.
+     */
+    public <T> T invoke(Supplier<T> task)
+    {
+        if (!parallel) {
+            return task.get();
+        }
+        final var pool = pool();
+        if (ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == pool) {
+            return task.get();
+        }
+        return pool.invoke(ForkJoinTask.adapt(task::get));
+    }
+
+    /**
+     * Snapshot of the pool's counters.  All zero until the pool is first used.
+     */
+    public synchronized Stats getStats()
+    {
+        if (pool == null) {
+            return new Stats(parallelism, 0, 0, 0, 0);
+        }
+        return new Stats(pool.getParallelism(),
+                         pool.getActiveThreadCount(),
+                         pool.getQueuedTaskCount(),
+                         pool.getQueuedSubmissionCount(),
+                         pool.getStealCount());
+    }
+
+    /**
+     * Stops the worker threads of a pool created by this object once any tasks already
+     * submitted have finished.
+     */
+    @Override
+    public synchronized void close()
+    {
+        if (owned && pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private synchronized ForkJoinPool pool()
+    {
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    private static int validParallelism(int parallelism)
+    {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("parallelism must not be negative: " + parallelism);
+        }
+        return parallelism == 0 ? Runtime.getRuntime().availableProcessors() : parallelism;
+    }
+
+    /**
+     * Queued tasks are the ones forked by workers and queued submissions are the ones waiting
+     * to be picked up from outside the pool.
+     */
+    @Value
+    public static class Stats
+    {
+        int parallelism;
+        int activeThreads;
+        long queuedTasks;
+        int queuedSubmissions;
+        long steals;
+    }
+}
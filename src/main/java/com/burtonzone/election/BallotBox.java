@@ -1,42 +1,79 @@
 package com.burtonzone.election;
 
+import static com.burtonzone.common.Decimal.ONE;
 import static com.burtonzone.common.Decimal.ZERO;
 import static org.javimmutable.collections.util.JImmutables.*;
 
 import com.burtonzone.common.Counter;
 import com.burtonzone.common.Decimal;
+import com.burtonzone.common.Ordinals;
+import com.burtonzone.common.Tally;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Predicate;
+import java.util.stream.Collector;
 import javax.annotation.Nonnull;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.Value;
+import org.javimmutable.collections.Indexed;
 import org.javimmutable.collections.IterableStreamable;
 import org.javimmutable.collections.JImmutableList;
 import org.javimmutable.collections.JImmutableSet;
 import org.javimmutable.collections.SplitableIterator;
-import org.javimmutable.collections.iterators.TransformIterator;
-import org.javimmutable.collections.util.JImmutables;
-
+import org.javimmutable.collections.common.StreamConstants;
+import org.javimmutable.collections.iterators.IndexedIterator;
+
+/**
+ * Immutable collection of distinct ballots and their counts.  Ballots are stored in columns
+ * rather than as {@link Ballot} objects: the candidates of every ballot are stored as
+ * candidate ordinals in one flat array with an offsets array marking where each ballot
+ * begins, and each ballot's party ordinal and count are stored in parallel arrays.
+ * {@link Ballot} objects are only created when iterating over the box as entries.
+ * <p>
+ * Every party of a candidate on any ballot has a party ordinal even if no ballot has
+ * that party as its party vote.  Boxes derived from another box share its ordinals.
+ */
 public class BallotBox
     implements IterableStreamable<Counter.Entry<Ballot>>
 {
-    private static final Counter<Ballot> NoBallots = new Counter<>();
-    public static final BallotBox Empty = new BallotBox(NoBallots);
-
-    private final Counter<Ballot> ballots;
-
-    private BallotBox(Counter<Ballot> ballots)
+    public static final BallotBox Empty = builder().build();
+
+    private final Ordinals<Candidate> candidates;
+    private final Ordinals<Party> parties;
+    private final int[] choices;
+    private final int[] offsets;
+    private final int[] ballotParties;
+    private final Decimal[] counts;
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    private final int[][] postings = computePostings();
+    @Getter(lazy = true)
+    private final BallotTrie trie = BallotTrie.of(this);
+
+    private BallotBox(Ordinals<Candidate> candidates,
+                      Ordinals<Party> parties,
+                      int[] choices,
+                      int[] offsets,
+                      int[] ballotParties,
+                      Decimal[] counts)
     {
-        this.ballots = ballots;
+        this.candidates = candidates;
+        this.parties = parties;
+        this.choices = choices;
+        this.offsets = offsets;
+        this.ballotParties = ballotParties;
+        this.counts = counts;
     }
 
     public static Builder builder()
     {
-        return new Builder(NoBallots);
+        return new Builder(Ordinals.<Candidate>builder().build(), Ordinals.<Party>builder().build());
     }
 
     public Builder editor()
     {
-        return new Builder(ballots);
+        return deriveBuilder().add(this);
     }
 
     public BallotBox add(BallotBox other)
@@ -44,15 +81,91 @@ public class BallotBox
         return editor().add(other).build();
     }
 
-    public Decimal getAverageNumberOfChoices()
+    /**
+     * Combine all of the boxes in the stream into a single box using one mutable builder, so
+     * a sequential stream copies every ballot once rather than once per box merged after it.
+     * A parallel stream fills one builder per group of boxes and merges the builders in order
+     * without building any partial boxes, so the ballots are in the same order either way.
+     */
+    public static Collector<BallotBox, Builder, BallotBox> collectSum()
+    {
+        return Collector.of(BallotBox::builder,
+                            Builder::add,
+                            Builder::add,
+                            Builder::build);
+    }
+
+    public Ordinals<Candidate> getCandidateOrdinals()
+    {
+        return candidates;
+    }
+
+    public Ordinals<Party> getPartyOrdinals()
+    {
+        return parties;
+    }
+
+    /**
+     * Number of distinct ballots in the box.
+     */
+    public int size()
+    {
+        return counts.length;
+    }
+
+    public int getChoiceCount(int ballot)
+    {
+        return offsets[ballot + 1] - offsets[ballot];
+    }
+
+    /**
+     * Candidate ordinal of the choice at the specified rank of a ballot.
+     */
+    public int getChoice(int ballot,
+                         int rank)
+    {
+        return choices[offsets[ballot] + rank];
+    }
+
+    public int getPartyOrdinal(int ballot)
+    {
+        return ballotParties[ballot];
+    }
+
+    public Decimal getCount(int ballot)
+    {
+        return counts[ballot];
+    }
+
+    /**
+     * Indexes in ascending order of every ballot that ranks the candidate at any position.
+     * The index is built on first use and the returned array is shared so it must not be modified.
+     */
+    public int[] getBallotsRanking(int candidate)
+    {
+        return getPostings()[candidate];
+    }
+
+    public Ballot getBallot(int ballot)
     {
-        int count = 0;
-        var sum = 0;
-        for (var ballot : ballots.keys()) {
-            count += 1;
-            sum += ballot.size();
+        final JImmutableList.Builder<Candidate> ballotCandidates = listBuilder();
+        for (int i = offsets[ballot]; i < offsets[ballot + 1]; ++i) {
+            ballotCandidates.add(candidates.get(choices[i]));
         }
-        return (count == 0) ? ZERO : new Decimal(sum).divide(count);
+        return new Ballot(ballotCandidates.build(), parties.get(ballotParties[ballot]));
+    }
+
+    /**
+     * Total number of choices over all of the distinct ballots in the box.
+     */
+    public int getNumberOfChoices()
+    {
+        return choices.length;
+    }
+
+    public Decimal getAverageNumberOfChoices()
+    {
+        return (counts.length == 0) ? ZERO : new Decimal(choices.length).divide(counts.length);
     }
 
     public BallotBox toSingleChoiceBallots()
@@ -62,10 +175,21 @@ public class BallotBox
 
     public BallotBox toPrefixBallots(int maxRanks)
     {
-        var newBallots = ballots.stream()
-            .map(e -> entry(e.getKey().prefix(maxRanks), e.getCount()))
-            .collect(Counter.collectEntrySum());
-        return new BallotBox(newBallots);
+        var changed = false;
+        for (int b = 0; b < counts.length && !changed; ++b) {
+            changed = getChoiceCount(b) > maxRanks;
+        }
+        if (!changed) {
+            return this;
+        }
+        final var answer = deriveBuilder();
+        for (int b = 0; b < counts.length; ++b) {
+            final var length = Math.min(maxRanks, getChoiceCount(b));
+            final var prefix = new int[length];
+            System.arraycopy(choices, offsets[b], prefix, 0, length);
+            answer.addRow(ballotParties[b], prefix, counts[b]);
+        }
+        return answer.build();
     }
 
     /**
@@ -74,10 +198,15 @@ public class BallotBox
      */
     public BallotBox toPartyVoteFromFirstChoice()
     {
-        var newBallots = ballots.stream()
-            .map(e -> entry(e.getKey().toPartyVoteFromFirstChoice(), e.getCount()))
-            .collect(Counter.collectEntrySum());
-        return new BallotBox(newBallots);
+        final var candidateParties = computeCandidateParties();
+        final var answer = deriveBuilder();
+        var changed = false;
+        for (int b = 0; b < counts.length; ++b) {
+            final var party = candidateParties[choices[offsets[b]]];
+            changed = changed || party != ballotParties[b];
+            answer.addRow(party, ballotChoices(b), counts[b]);
+        }
+        return changed ? answer.build() : this;
     }
 
     /**
@@ -88,11 +217,26 @@ public class BallotBox
      */
     public Counter<Party> getCandidatePartyVotes(int numSeats)
     {
-        return ballots.stream()
-            .map(e -> e.getKey()
-                .countPartyVotes(numSeats)
-                .times(e.getCount()))
-            .collect(Counter.collectSum());
+        final var candidateParties = computeCandidateParties();
+        final var partyCounts = new int[parties.size()];
+        final var tally = new Tally(parties.size());
+        for (int b = 0; b < counts.length; ++b) {
+            final var start = offsets[b];
+            final var end = Math.min(offsets[b + 1], start + numSeats);
+            for (int i = start; i < end; ++i) {
+                partyCounts[candidateParties[choices[i]]] += 1;
+            }
+            final var total = new Decimal(end - start);
+            for (int i = start; i < end; ++i) {
+                final var party = candidateParties[choices[i]];
+                if (partyCounts[party] > 0) {
+                    final var ratio = new Decimal(partyCounts[party]).divide(total);
+                    tally.add(party, ratio.times(counts[b]));
+                    partyCounts[party] = 0;
+                }
+            }
+        }
+        return tally.toCounter(parties);
     }
 
     /**
@@ -100,74 +244,104 @@ public class BallotBox
      */
     public Counter<Party> getPartyVotes()
     {
-        return ballots.stream()
-            .map(e -> entry(e.getKey().getParty(), e.getCount()))
-            .collect(Counter.collectEntrySum());
+        final var tally = new Tally(parties.size());
+        for (int b = 0; b < counts.length; ++b) {
+            tally.add(ballotParties[b], counts[b]);
+        }
+        return tally.toCounter(parties);
     }
 
     @Nonnull
     @Override
     public SplitableIterator<Counter.Entry<Ballot>> iterator()
     {
-        return TransformIterator.of(ballots.iterator(),
-                                    e -> new Counter.Entry<>(e.getKey(), e.getCount()));
+        return IndexedIterator.iterator(new Indexed<>()
+        {
+            @Override
+            public Counter.Entry<Ballot> get(int index)
+            {
+                return new Counter.Entry<>(getBallot(index), counts[index]);
+            }
+
+            @Override
+            public int size()
+            {
+                return counts.length;
+            }
+        });
     }
 
     @Override
     public int getSpliteratorCharacteristics()
     {
-        return ballots.getSpliteratorCharacteristics();
+        return StreamConstants.SPLITERATOR_ORDERED;
     }
 
     public Counter<Candidate> getFirstChoiceCandidateVotes()
     {
-        return Counter.sum(ballots,
-                           e -> e.getKey().first(),
-                           e -> e.getCount());
+        final var tally = new Tally(candidates.size());
+        for (int b = 0; b < counts.length; ++b) {
+            tally.add(choices[offsets[b]], counts[b]);
+        }
+        return tally.toCounter(candidates);
     }
 
     public BallotBox removeAndTransfer(Candidate candidate,
                                        Decimal transferWeight)
     {
-        var newBallots = ballots;
-        for (var e : ballots) {
-            var oldCandidates = e.getKey();
-            var newCandidates = oldCandidates.without(candidate);
-            if (newCandidates == oldCandidates) {
+        if (!candidates.contains(candidate)) {
+            return this;
+        }
+        final var ordinal = candidates.ordinal(candidate);
+        final var answer = deriveBuilder();
+        var changed = false;
+        for (int b = 0; b < counts.length; ++b) {
+            final var ballotChoices = ballotChoices(b);
+            final var newChoices = without(ballotChoices, ordinal);
+            if (newChoices == ballotChoices) {
+                answer.addRow(ballotParties[b], ballotChoices, counts[b]);
                 continue;
             }
 
-            newBallots = newBallots.delete(oldCandidates);
-            if (newCandidates.isEmpty()) {
+            changed = true;
+            if (newChoices.length == 0) {
                 continue;
             }
 
-            var transferCount = e.getCount();
-            if (oldCandidates.isFirst(candidate)) {
+            var transferCount = counts[b];
+            if (ballotChoices[0] == ordinal) {
                 transferCount = transferCount.times(transferWeight);
                 if (transferCount.isZero()) {
                     continue;
                 }
             }
-
-            final var count = transferCount;
-            newBallots = newBallots.add(newCandidates, count);
+            answer.addRow(ballotParties[b], newChoices, transferCount);
         }
-        return newBallots == ballots ? this : new BallotBox(newBallots);
+        return changed ? answer.build() : this;
     }
 
     public Decimal getTotalCount()
     {
-        return ballots.values().reduce(ZERO, Decimal::plus);
+        var total = ZERO;
+        for (Decimal count : counts) {
+            total = total.plus(count);
+        }
+        return total;
     }
 
     public JImmutableSet<Candidate> getCandidates()
     {
-        return ballots
-            .keys()
-            .stream()
-            .flatMap(ballot -> ballot.getCandidates().stream())
-            .collect(JImmutables.sortedSetCollector());
+        final var used = new boolean[candidates.size()];
+        for (int choice : choices) {
+            used[choice] = true;
+        }
+        JImmutableSet<Candidate> answer = sortedSet();
+        for (int c = 0; c < used.length; ++c) {
+            if (used[c]) {
+                answer = answer.insert(candidates.get(c));
+            }
+        }
+        return answer;
     }
 
     public Comparator<Candidate> createCandidateComparator()
@@ -177,65 +351,184 @@ public class BallotBox
 
     public Decimal countWastedUsingCandidateOnly(JImmutableList<CandidateVotes> electedVotes)
     {
-        final var electedCandidatesSet = electedVotes.transform(set(), CandidateVotes::getCandidate);
-        return ballots.stream()
-            .filter(e -> e.getKey().isWasted(electedCandidatesSet))
-            .map(ballotEntry -> ballotEntry.getCount())
-            .collect(Decimal.collectSum());
+        final var electedCandidates = computeElectedCandidates(electedVotes);
+        var sum = ZERO;
+        for (int b = 0; b < counts.length; ++b) {
+            if (!anyChoiceIn(b, electedCandidates)) {
+                sum = sum.plus(counts[b]);
+            }
+        }
+        return sum;
     }
 
     public Decimal countWastedUsingCandidateOrParty(JImmutableList<CandidateVotes> electedVotes)
     {
-        final var electedCandidatesSet = electedVotes.transform(set(), CandidateVotes::getCandidate);
-        final var electedPartiesSet = electedCandidatesSet.transform(Candidate::getParty);
-        return ballots.stream()
-            .filter(e -> e.getKey().isWasted(electedCandidatesSet, electedPartiesSet))
-            .map(Counter.Entry::getCount)
-            .collect(Decimal.collectSum());
+        final var electedCandidates = computeElectedCandidates(electedVotes);
+        final var electedParties = new boolean[parties.size()];
+        for (CandidateVotes cv : electedVotes) {
+            final var party = cv.getCandidate().getParty();
+            if (parties.contains(party)) {
+                electedParties[parties.ordinal(party)] = true;
+            }
+        }
+        var sum = ZERO;
+        for (int b = 0; b < counts.length; ++b) {
+            if (!(electedParties[ballotParties[b]] || anyChoiceIn(b, electedCandidates))) {
+                sum = sum.plus(counts[b]);
+            }
+        }
+        return sum;
     }
 
     public BallotBox withoutBallotsMatching(Predicate<Ballot> matcher)
     {
-        var newBallots = ballots;
-        for (Counter.Entry<Ballot> e : newBallots) {
-            if (matcher.test(e.getKey())) {
-                newBallots = newBallots.delete(e.getKey());
+        final var answer = deriveBuilder();
+        var changed = false;
+        for (int b = 0; b < counts.length; ++b) {
+            if (matcher.test(getBallot(b))) {
+                changed = true;
+            } else {
+                answer.addRow(ballotParties[b], ballotChoices(b), counts[b]);
+            }
+        }
+        return changed ? answer.build() : this;
+    }
+
+    /**
+     * Equivalent to {@link #withoutBallotsMatching} with {@link Ballot#partyIn} but without
+     * creating a {@link Ballot} for every row.
+     */
+    public BallotBox withoutBallotsForParties(JImmutableSet<Party> excluded)
+    {
+        final var excludedParties = new boolean[parties.size()];
+        for (int p = 0; p < excludedParties.length; ++p) {
+            excludedParties[p] = excluded.contains(parties.get(p));
+        }
+        final var answer = deriveBuilder();
+        var changed = false;
+        for (int b = 0; b < counts.length; ++b) {
+            if (excludedParties[ballotParties[b]]) {
+                changed = true;
+            } else {
+                answer.addRow(ballotParties[b], ballotChoices(b), counts[b]);
             }
         }
-        return newBallots == ballots ? this : new BallotBox(newBallots);
+        return changed ? answer.build() : this;
+    }
+
+    /**
+     * Creates an empty {@link Builder} that starts with the same ordinals as this box.
+     */
+    private Builder deriveBuilder()
+    {
+        return new Builder(candidates, parties);
+    }
+
+    private int[] ballotChoices(int ballot)
+    {
+        final var answer = new int[getChoiceCount(ballot)];
+        System.arraycopy(choices, offsets[ballot], answer, 0, answer.length);
+        return answer;
+    }
+
+    private int[][] computePostings()
+    {
+        final var sizes = new int[candidates.size()];
+        for (int b = 0; b < counts.length; ++b) {
+            for (int i = offsets[b]; i < offsets[b + 1]; ++i) {
+                sizes[choices[i]] += 1;
+            }
+        }
+        final var answer = new int[sizes.length][];
+        for (int c = 0; c < sizes.length; ++c) {
+            answer[c] = new int[sizes[c]];
+            sizes[c] = 0;
+        }
+        for (int b = 0; b < counts.length; ++b) {
+            for (int i = offsets[b]; i < offsets[b + 1]; ++i) {
+                final var c = choices[i];
+                answer[c][sizes[c]++] = b;
+            }
+        }
+        return answer;
+    }
+
+    private int[] computeCandidateParties()
+    {
+        final var answer = new int[candidates.size()];
+        for (int c = 0; c < answer.length; ++c) {
+            answer[c] = parties.ordinal(candidates.get(c).getParty());
+        }
+        return answer;
+    }
+
+    private boolean[] computeElectedCandidates(JImmutableList<CandidateVotes> electedVotes)
+    {
+        final var answer = new boolean[candidates.size()];
+        for (CandidateVotes cv : electedVotes) {
+            if (candidates.contains(cv.getCandidate())) {
+                answer[candidates.ordinal(cv.getCandidate())] = true;
+            }
+        }
+        return answer;
+    }
+
+    private boolean anyChoiceIn(int ballot,
+                                boolean[] selected)
+    {
+        for (int i = offsets[ballot]; i < offsets[ballot + 1]; ++i) {
+            if (selected[choices[i]]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] without(int[] ballotChoices,
+                                 int ordinal)
+    {
+        for (int i = 0; i < ballotChoices.length; ++i) {
+            if (ballotChoices[i] == ordinal) {
+                final var answer = new int[ballotChoices.length - 1];
+                System.arraycopy(ballotChoices, 0, answer, 0, i);
+                System.arraycopy(ballotChoices, i + 1, answer, i, answer.length - i);
+                return answer;
+            }
+        }
+        return ballotChoices;
     }
 
     private class CandidateComparator
         implements Comparator<Candidate>
     {
-        private final Counter<ComparatorKey> scores;
-        private final int maxSize;
+        private final Tally[] scores;
 
         private CandidateComparator()
         {
             var maxSize = 0;
-            var scores = new Counter<ComparatorKey>();
-            for (var e : ballots) {
-                var choices = e.getKey().getCandidates();
-                var ballotScore = e.getCount();
-                maxSize = Math.max(maxSize, choices.size());
-                for (int i = 0; i < choices.size(); ++i) {
-                    var candidate = choices.get(i);
-                    var key = new ComparatorKey(candidate, i);
-                    scores = scores.add(key, ballotScore);
+            for (int b = 0; b < counts.length; ++b) {
+                maxSize = Math.max(maxSize, getChoiceCount(b));
+            }
+            scores = new Tally[maxSize];
+            for (int i = 0; i < maxSize; ++i) {
+                scores[i] = new Tally(candidates.size());
+            }
+            for (int b = 0; b < counts.length; ++b) {
+                for (int i = 0; i < getChoiceCount(b); ++i) {
+                    scores[i].add(getChoice(b, i), counts[b]);
                 }
             }
-            this.scores = scores;
-            this.maxSize = maxSize;
         }
 
         @Override
         public int compare(Candidate a,
                            Candidate b)
         {
-            for (int i = 0; i < maxSize; ++i) {
-                var aScore = candidateScoreAt(a, i);
-                var bScore = candidateScoreAt(b, i);
+            final var aOrdinal = candidates.contains(a) ? candidates.ordinal(a) : -1;
+            final var bOrdinal = candidates.contains(b) ? candidates.ordinal(b) : -1;
+            for (Tally score : scores) {
+                var aScore = aOrdinal < 0 ? ZERO : score.get(aOrdinal);
+                var bScore = bOrdinal < 0 ? ZERO : score.get(bOrdinal);
                 var diff = aScore.compareTo(bScore);
                 if (diff != 0) {
                     return -diff;
@@ -243,34 +536,39 @@ public class BallotBox
             }
             return 0;
         }
-
-        private Decimal candidateScoreAt(Candidate candidate,
-                                         int index)
-        {
-            var key = new ComparatorKey(candidate, index);
-            return scores.get(key);
-        }
     }
 
+    /**
+     * Key used to merge identical ballots while building a box.
+     */
     @Value
-    private static class ComparatorKey
+    private static class Row
     {
-        Candidate candidate;
-        int index;
+        int party;
+        int[] choices;
     }
 
     public static class Builder
     {
-        private Counter<Ballot> ballots;
-
-        private Builder(Counter<Ballot> ballots)
+        private final Ordinals<Candidate> baseCandidates;
+        private final Ordinals<Party> baseParties;
+        private final Ordinals.Builder<Candidate> candidates;
+        private final Ordinals.Builder<Party> parties;
+        private final Map<Row, Decimal> rows = new LinkedHashMap<>();
+        private int numberOfChoices;
+
+        private Builder(Ordinals<Candidate> baseCandidates,
+                        Ordinals<Party> baseParties)
         {
-            this.ballots = ballots;
+            this.baseCandidates = baseCandidates;
+            this.baseParties = baseParties;
+            candidates = baseCandidates.editor();
+            parties = baseParties.editor();
         }
 
         public Builder add(Ballot ballot)
         {
-            return add(ballot, 1);
+            return add(ballot, ONE);
         }
 
         public Builder add(Ballot ballot,
@@ -283,22 +581,108 @@ public class BallotBox
                            Decimal votes)
         {
             if (!ballot.isEmpty()) {
-                ballots = ballots.add(ballot, votes);
+                final var ballotChoices = new int[ballot.size()];
+                for (int i = 0; i < ballotChoices.length; ++i) {
+                    final var candidate = ballot.getCandidates().get(i);
+                    ballotChoices[i] = candidates.ordinal(candidate);
+                    parties.add(candidate.getParty());
+                }
+                addRow(parties.ordinal(ballot.getParty()), ballotChoices, votes);
             }
             return this;
         }
 
         public Builder add(BallotBox ballots)
         {
-            for (Counter.Entry<Ballot> ballot : ballots) {
-                add(ballot.getKey(), ballot.getCount());
+            final var candidateMap = new int[ballots.candidates.size()];
+            for (int c = 0; c < candidateMap.length; ++c) {
+                final var candidate = ballots.candidates.get(c);
+                candidateMap[c] = candidates.ordinal(candidate);
+                parties.add(candidate.getParty());
+            }
+            final var partyMap = new int[ballots.parties.size()];
+            for (int p = 0; p < partyMap.length; ++p) {
+                partyMap[p] = parties.ordinal(ballots.parties.get(p));
+            }
+            for (int b = 0; b < ballots.counts.length; ++b) {
+                final var ballotChoices = ballots.ballotChoices(b);
+                for (int i = 0; i < ballotChoices.length; ++i) {
+                    ballotChoices[i] = candidateMap[ballotChoices[i]];
+                }
+                addRow(partyMap[ballots.ballotParties[b]], ballotChoices, ballots.counts[b]);
+            }
+            return this;
+        }
+
+        /**
+         * Adds every ballot added to another builder, in the same order, without building it.
+         */
+        public Builder add(Builder other)
+        {
+            final var candidateMap = new int[other.candidates.size()];
+            for (int c = 0; c < candidateMap.length; ++c) {
+                final var candidate = other.candidates.get(c);
+                candidateMap[c] = candidates.ordinal(candidate);
+                parties.add(candidate.getParty());
+            }
+            final var partyMap = new int[other.parties.size()];
+            for (int p = 0; p < partyMap.length; ++p) {
+                partyMap[p] = parties.ordinal(other.parties.get(p));
+            }
+            for (var e : other.rows.entrySet()) {
+                final var row = e.getKey();
+                final var ballotChoices = new int[row.choices.length];
+                for (int i = 0; i < ballotChoices.length; ++i) {
+                    ballotChoices[i] = candidateMap[row.choices[i]];
+                }
+                addRow(partyMap[row.party], ballotChoices, e.getValue());
             }
             return this;
         }
 
+        /**
+         * Adds a ballot already encoded using this builder's ordinals.
+         */
+        private void addRow(int party,
+                            int[] ballotChoices,
+                            Decimal votes)
+        {
+            if (ballotChoices.length > 0 && !votes.isNegOrZero()) {
+                final var row = new Row(party, ballotChoices);
+                final var existing = rows.get(row);
+                if (existing == null) {
+                    rows.put(row, votes);
+                    numberOfChoices += ballotChoices.length;
+                } else {
+                    rows.put(row, existing.plus(votes));
+                }
+            }
+        }
+
         public BallotBox build()
         {
-            return new BallotBox(ballots);
+            final var numberOfBallots = rows.size();
+            final var choices = new int[numberOfChoices];
+            final var offsets = new int[numberOfBallots + 1];
+            final var ballotParties = new int[numberOfBallots];
+            final var counts = new Decimal[numberOfBallots];
+            var b = 0;
+            var offset = 0;
+            for (var e : rows.entrySet()) {
+                final var row = e.getKey();
+                System.arraycopy(row.choices, 0, choices, offset, row.choices.length);
+                offset += row.choices.length;
+                offsets[b + 1] = offset;
+                ballotParties[b] = row.party;
+                counts[b] = e.getValue();
+                b += 1;
+            }
+            return new BallotBox(candidates.size() == baseCandidates.size() ? baseCandidates : candidates.build(),
+                                 parties.size() == baseParties.size() ? baseParties : parties.build(),
+                                 choices,
+                                 offsets,
+                                 ballotParties,
+                                 counts);
         }
     }
 }
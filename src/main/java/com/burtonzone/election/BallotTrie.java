@@ -0,0 +1,146 @@
+package com.burtonzone.election;
+
+import static com.burtonzone.common.Decimal.ZERO;
+
+import com.burtonzone.common.Decimal;
+import java.util.Arrays;
+
+/**
+ * Weighted prefix trie of the rankings in a {@link BallotBox}.  Every node other than the root
+ * is one candidate choice and the path from the root to a node is a prefix shared by every
+ * ballot in that node's subtree.  The weight of a node is the total count of the ballots in its
+ * subtree.  Ballots with the same choices but different party votes end at the same node but
+ * remain separate ballots so their counts can still be adjusted individually.
+ * <p>
+ * Nodes and ballots are identified by index.  Children of a node and the ballots ending at a
+ * node are linked lists that end with {@link #NONE}.  Ballot indexes are the same as in the box.
+ */
+public class BallotTrie
+{
+    public static final int NONE = -1;
+    public static final int ROOT = 0;
+
+    private final BallotBox ballots;
+    private final int[] candidates;
+    private final int[] firstChildren;
+    private final int[] nextSiblings;
+    private final int[] firstBallots;
+    private final int[] nextBallots;
+    private final Decimal[] weights;
+
+    private BallotTrie(BallotBox ballots,
+                       int[] candidates,
+                       int[] firstChildren,
+                       int[] nextSiblings,
+                       int[] firstBallots,
+                       int[] nextBallots,
+                       Decimal[] weights)
+    {
+        this.ballots = ballots;
+        this.candidates = candidates;
+        this.firstChildren = firstChildren;
+        this.nextSiblings = nextSiblings;
+        this.firstBallots = firstBallots;
+        this.nextBallots = nextBallots;
+        this.weights = weights;
+    }
+
+    public static BallotTrie of(BallotBox ballots)
+    {
+        var maxNodes = 1;
+        for (int b = 0; b < ballots.size(); ++b) {
+            maxNodes += ballots.getChoiceCount(b);
+        }
+        final var candidates = new int[maxNodes];
+        final var firstChildren = new int[maxNodes];
+        final var nextSiblings = new int[maxNodes];
+        final var firstBallots = new int[maxNodes];
+        final var nextBallots = new int[ballots.size()];
+        final var weights = new Decimal[maxNodes];
+        Arrays.fill(firstChildren, NONE);
+        Arrays.fill(firstBallots, NONE);
+        candidates[ROOT] = NONE;
+        nextSiblings[ROOT] = NONE;
+        weights[ROOT] = ZERO;
+        var size = 1;
+        for (int b = 0; b < ballots.size(); ++b) {
+            final var count = ballots.getCount(b);
+            var node = ROOT;
+            weights[node] = weights[node].plus(count);
+            for (int i = 0; i < ballots.getChoiceCount(b); ++i) {
+                final var candidate = ballots.getChoice(b, i);
+                var child = firstChildren[node];
+                while (child != NONE && candidates[child] != candidate) {
+                    child = nextSiblings[child];
+                }
+                if (child == NONE) {
+                    child = size++;
+                    candidates[child] = candidate;
+                    nextSiblings[child] = firstChildren[node];
+                    firstChildren[node] = child;
+                    weights[child] = ZERO;
+                }
+                node = child;
+                weights[node] = weights[node].plus(count);
+            }
+            nextBallots[b] = firstBallots[node];
+            firstBallots[node] = b;
+        }
+        return new BallotTrie(ballots,
+                              Arrays.copyOf(candidates, size),
+                              Arrays.copyOf(firstChildren, size),
+                              Arrays.copyOf(nextSiblings, size),
+                              Arrays.copyOf(firstBallots, size),
+                              nextBallots,
+                              Arrays.copyOf(weights, size));
+    }
+
+    public BallotBox getBallots()
+    {
+        return ballots;
+    }
+
+    /**
+     * Number of nodes including the root.
+     */
+    public int size()
+    {
+        return candidates.length;
+    }
+
+    /**
+     * Candidate ordinal (from the box's ordinals) chosen at this node.  {@link #NONE} for the root.
+     */
+    public int getCandidate(int node)
+    {
+        return candidates[node];
+    }
+
+    public int getFirstChild(int node)
+    {
+        return firstChildren[node];
+    }
+
+    public int getNextSibling(int node)
+    {
+        return nextSiblings[node];
+    }
+
+    /**
+     * Index of the first ballot whose last choice is this node.
+     */
+    public int getFirstBallot(int node)
+    {
+        return firstBallots[node];
+    }
+
+    public int getNextBallot(int ballot)
+    {
+        return nextBallots[ballot];
+    }
+
+    public Decimal getWeight(int node)
+    {
+        return weights[node];
+    }
+}
@@ -2,7 +2,9 @@ package com.burtonzone.election;
 
 import static org.javimmutable.collections.util.JImmutables.*;
 
+import com.burtonzone.common.CostScheduler;
 import com.burtonzone.common.Counter;
+import com.burtonzone.common.WorkPool;
 import java.util.stream.Stream;
 import lombok.Value;
 import org.javimmutable.collections.JImmutableList;
@@ -21,10 +23,42 @@ public class DistrictMap
         return new Builder();
     }
 
+    /**
+     * Creates the elections for one round.  Each district gets its own factory from
+     * {@link ElectionFactory#forDistrict} so the elections are the same whether or not
+     * they are created in parallel.
+     */
     public ElectionRunner.Elections create(ElectionFactory factory,
-                                           boolean parallelExecution)
+                                           int round,
+                                           WorkPool workPool)
     {
-        return new ElectionRunner.Elections(createImpl(factory, parallelExecution, districts.stream()), parallelExecution);
+        return forRound(factory, round).create(workPool);
+    }
+
+    /**
+     * Lazily creates the elections for one round.  See {@link Round#stream}.
+     */
+    public Stream<Election> stream(ElectionFactory factory,
+                                   int round,
+                                   WorkPool workPool)
+    {
+        return forRound(factory, round).stream(workPool);
+    }
+
+    /**
+     * Gets the factory for every district of a round without creating any elections.  Rounds
+     * must be started in order on one thread for candidate names to be repeatable but their
+     * elections can then be created anywhere.
+     */
+    public Round forRound(ElectionFactory factory,
+                          int round)
+    {
+        final JImmutableList.Builder<DistrictTask> tasks = listBuilder();
+        for (int district = 0; district < districts.size(); ++district) {
+            final var settings = districts.get(district).settings;
+            tasks.add(new DistrictTask(settings, factory.forDistrict(settings, round, district)));
+        }
+        return new Round(tasks.build());
     }
 
     public int getSeats()
@@ -37,26 +71,77 @@ public class DistrictMap
         return Counter.sumInts(districts, d -> d.settings.getRegion(), d -> d.settings.getNumberOfSeats());
     }
 
-    private JImmutableList<Election> createImpl(ElectionFactory factory,
-                                                boolean parallelExecution,
-                                                Stream<DistrictSpec> specs)
+    public static class Round
     {
-        if (parallelExecution) {
-            specs = specs.parallel();
+        private final JImmutableList<DistrictTask> tasks;
+
+        private Round(JImmutableList<DistrictTask> tasks)
+        {
+            this.tasks = tasks;
+        }
+
+        /**
+         * Creates every election of the round in district order.  In parallel the elections
+         * are created in the work pool with the most costly districts first.  The elections
+         * keep the work pool so they are counted in it as well.
+         */
+        public ElectionRunner.Elections create(WorkPool workPool)
+        {
+            final JImmutableList<Election> elections;
+            if (workPool.isParallel()) {
+                elections = workPool.invoke(() -> CostScheduler.map(tasks, DistrictTask::estimateCost, DistrictTask::create));
+            } else {
+                elections = tasks.transform(DistrictTask::create);
+            }
+            return new ElectionRunner.Elections(elections, workPool);
+        }
+
+        /**
+         * Lazily creates the elections of the round.  Each election is only created when the
+         * stream reaches its district so a runner that reduces the stream as it goes never
+         * holds more elections than there are threads working on the stream.  A parallel
+         * stream visits the most costly districts first rather than in district order.  It
+         * runs in the fork/join pool of the thread that consumes it so it must be consumed
+         * inside the same work pool, as {@link ElectionRunner#reportElections} does.
+         */
+        public Stream<Election> stream(WorkPool workPool)
+        {
+            if (workPool.isParallel()) {
+                return CostScheduler.longestFirst(tasks, DistrictTask::estimateCost).map(DistrictTask::create);
+            } else {
+                return tasks.stream().map(DistrictTask::create);
+            }
         }
-        return specs.map(spec -> spec.create(factory))
-            .collect(listCollector());
     }
 
     @Value
     private static class DistrictSpec
     {
         ElectionSettings settings;
+    }
+
+    @Value
+    private static class DistrictTask
+    {
+        ElectionSettings settings;
+        ElectionFactory factory;
 
-        Election create(ElectionFactory factory)
+        Election create()
         {
             return factory.createElection(settings);
         }
+
+        /**
+         * Relative cost of creating and counting the election: seats times voters times
+         * candidates.
+         */
+        long estimateCost()
+        {
+            final long seats = settings.getNumberOfSeats();
+            final long voters = seats * settings.getVotersPerSeat();
+            final long candidates = seats * settings.getParties().size();
+            return seats * voters * candidates;
+        }
     }
 
     public static class Builder
@@ -5,6 +5,7 @@ import static org.javimmutable.collections.util.JImmutables.*;
 
 import com.burtonzone.common.Counter;
 import com.burtonzone.common.Decimal;
+import com.burtonzone.common.Ordinals;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
@@ -28,6 +29,10 @@ public class Election
     private final Decimal totalVotes;
     private final Decimal quota;
     private final Comparator<Candidate> tieBreaker;
+    @Getter(lazy = true)
+    private final Ordinals<Candidate> candidateOrdinals = computeCandidateOrdinals();
+    @Getter(lazy = true)
+    private final Ordinals<Party> partyOrdinals = computePartyOrdinals();
 
     public Election(String region,
                     JImmutableList<Party> parties,
@@ -62,6 +67,15 @@ public class Election
         return new Builder();
     }
 
+    /**
+     * Relative cost of counting the election: seats times votes times candidates.  Votes are
+     * rounded to the nearest whole vote so the estimate is the same in every numeric mode.
+     */
+    public long estimateCost()
+    {
+        return seats * Math.round(totalVotes.toDouble()) * candidates.size();
+    }
+
     public Counter<Party> getPartyVotes()
     {
         return ballots.getPartyVotes();
@@ -72,6 +86,34 @@ public class Election
         return candidates.insertAll(auxiliaryCandidates);
     }
 
+    /**
+     * Dense ordinals for every candidate in the election.  The ordinals of the ballot box
+     * come first so candidate ordinals in the box can be used directly.
+     */
+    private Ordinals<Candidate> computeCandidateOrdinals()
+    {
+        return ballots.getCandidateOrdinals()
+            .editor()
+            .addAll(candidates)
+            .addAll(auxiliaryCandidates)
+            .build();
+    }
+
+    /**
+     * Dense ordinals for every party in the election.  The ordinals of the ballot box
+     * come first so party ordinals in the box can be used directly.
+     */
+    private Ordinals<Party> computePartyOrdinals()
+    {
+        final var answer = ballots.getPartyOrdinals()
+            .editor()
+            .addAll(parties);
+        for (var candidate : getCandidateOrdinals()) {
+            answer.add(candidate.getParty());
+        }
+        return answer.build();
+    }
+
     public static class Builder
     {
         private String region = "";
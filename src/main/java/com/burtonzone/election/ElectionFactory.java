@@ -6,5 +6,15 @@ public interface ElectionFactory
 {
     Election createElection(ElectionSettings settings);
 
+    /**
+     * Creates a factory for one district in one round of elections.  Its random numbers are
+     * drawn from a stream derived from the round and district numbers and any ids it needs
+     * are reserved immediately.  Districts can then be created in parallel and still produce
+     * the same elections as when they are created one at a time.
+     */
+    ElectionFactory forDistrict(ElectionSettings settings,
+                                int round,
+                                int district);
+
     JImmutableList<Party> createParties(int numberOfParties);
 }
@@ -3,6 +3,8 @@ package com.burtonzone.election;
 import static org.javimmutable.collections.util.JImmutables.*;
 
 import com.burtonzone.ResultsReport;
+import com.burtonzone.common.CostScheduler;
+import com.burtonzone.common.WorkPool;
 import lombok.Value;
 import org.javimmutable.collections.JImmutableList;
 
@@ -10,18 +12,38 @@ public interface ElectionRunner
 {
     ElectionResult runElection(Election election);
 
+    /**
+     * Counts every election.  In parallel the elections are counted in their work pool with
+     * the most costly counted first so that a few large districts are not left for the end.
+     * Results are in the same order as the elections either way.
+     */
     default Results runElections(Elections elections)
     {
-        var stream = elections.getElections().stream();
+        final JImmutableList<ElectionResult> results;
         if (elections.isParallel()) {
-            stream = stream.parallel();
+            results = elections.getWorkPool().invoke(
+                () -> CostScheduler.map(elections.getElections(), Election::estimateCost, this::runElection));
+        } else {
+            results = elections.getElections().transform(this::runElection);
         }
-        var results = stream
-            .map(this::runElection)
-            .collect(listCollector());
         return new Results(elections, results, ResultsReport.of(results));
     }
 
+    /**
+     * Counts each election of the round as {@link DistrictMap.Round#stream} creates it and
+     * reduces its result straight into the report, so only the elections being worked on are
+     * held at once.  The stream is consumed in the work pool so that in parallel it is counted
+     * by the pool's threads.  Runners that need every election at once before counting must
+     * override this to create the whole round instead.
+     */
+    default ResultsReport reportElections(DistrictMap.Round round,
+                                          WorkPool workPool)
+    {
+        return workPool.invoke(() -> round.stream(workPool)
+            .map(this::runElection)
+            .collect(ResultsReport.collector()));
+    }
+
     default int getSeatsForMap(DistrictMap districtMap)
     {
         return districtMap.getSeats();
@@ -31,7 +53,12 @@ public interface ElectionRunner
     class Elections
     {
         JImmutableList<Election> elections;
-        boolean parallel;
+        WorkPool workPool;
+
+        public boolean isParallel()
+        {
+            return workPool.isParallel();
+        }
 
         public JImmutableList<Elections> splitRegions()
         {
@@ -39,7 +66,7 @@ public interface ElectionRunner
                 .map(e -> entry(e.getRegion(), e))
                 .collect(listMapCollector())
                 .stream()
-                .map(e -> new Elections(e.getValue(), parallel))
+                .map(e -> new Elections(e.getValue(), workPool))
                 .collect(listCollector());
         }
     }
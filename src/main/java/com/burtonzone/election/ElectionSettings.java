@@ -20,12 +20,35 @@ public class ElectionSettings
         Mixed
     }
 
+    public enum VoterModel
+    {
+        /**
+         * Each voter's position is drawn at random.
+         */
+        Sampled,
+        /**
+         * Voters are spread over every possible position in proportion to its probability.
+         */
+        Expected,
+        /**
+         * Like Expected but the number of voters at each position is drawn from the
+         * multinomial distribution given by the position probabilities.
+         */
+        Multinomial
+    }
+
     @Builder.Default
     int numberOfSeats = 1;
 
     @Builder.Default
     VoteType voteType = VoteType.Candidate;
 
+    @Builder.Default
+    VoterModel voterModel = VoterModel.Sampled;
+
+    @Builder.Default
+    int votersPerSeat = 500;
+
     @Builder.Default
     int maxCandidateChoices = Integer.MAX_VALUE;
 
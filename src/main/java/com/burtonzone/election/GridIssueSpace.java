@@ -1,6 +1,8 @@
 package com.burtonzone.election;
 
 import com.burtonzone.common.Rand;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.javimmutable.collections.JImmutableList;
 
 public class GridIssueSpace
@@ -11,6 +13,12 @@ public class GridIssueSpace
         super(rand);
     }
 
+    @Override
+    public IssueSpace withRand(Rand rand)
+    {
+        return new GridIssueSpace(rand);
+    }
+
     @Override
     public Position center()
     {
@@ -29,15 +37,32 @@ public class GridIssueSpace
     @Override
     public Position centristPartyPosition()
     {
-        return new GridPosition(rand.nextInt(35, 65, PartyPositionBias),
-                                rand.nextInt(35, 65, PartyPositionBias));
+        return GridPosition.of(rand.nextInt(35, 65, PartyPositionBias),
+                               rand.nextInt(35, 65, PartyPositionBias));
     }
 
     @Override
     public Position anyPartyPosition()
     {
-        return new GridPosition(rand.nextInt(15, 85, PartyPositionBias),
-                                rand.nextInt(15, 85, PartyPositionBias));
+        return GridPosition.of(rand.nextInt(15, 85, PartyPositionBias),
+                               rand.nextInt(15, 85, PartyPositionBias));
+    }
+
+    @Override
+    public Map<Position, Long> voterPositionWeights(Position voterCenterPosition)
+    {
+        final var center = (GridPosition)voterCenterPosition;
+        final var weights = voterOffsetWeights();
+        final var answer = new LinkedHashMap<Position, Long>();
+        for (int dx = 0; dx < weights.length; ++dx) {
+            for (int dy = 0; dy < weights.length; ++dy) {
+                final var position = GridPosition.of(center.getX() + dx - MaxVoterDistance,
+                                                     center.getY() + dy - MaxVoterDistance)
+                    .wrapped(Position.MinPos, Position.MaxPos);
+                answer.merge(position, weights[dx] * weights[dy], Long::sum);
+            }
+        }
+        return answer;
     }
 
     @Override
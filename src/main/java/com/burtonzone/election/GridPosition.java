@@ -9,18 +9,47 @@ import lombok.Data;
 import lombok.Getter;
 import org.javimmutable.collections.JImmutableList;
 
+/**
+ * Positions are interned.  Every coordinate pair that can be reached by moving up to the
+ * width of the issue space away from a valid position has a single shared instance created
+ * on first use so generating positions does not allocate and equal positions are usually
+ * the same object.  Positions further out are created as needed.  The constructor always
+ * creates a new instance so code should use {@link #of} instead.
+ */
 @Data
 @AllArgsConstructor
 public class GridPosition
     implements Position
 {
-    public static final GridPosition Center = new GridPosition((MinPos + MaxPos) / 2, (MinPos + MaxPos) / 2);
+    private static final int CacheMin = MinPos - (MaxPos - MinPos);
+    private static final int CacheSize = 3 * (MaxPos - MinPos) + 1;
+    private static final GridPosition[] Cache = new GridPosition[CacheSize * CacheSize];
+
+    public static final GridPosition Center = of((MinPos + MaxPos) / 2, (MinPos + MaxPos) / 2);
 
     @Getter
     private final int x;
     @Getter
     private final int y;
 
+    public static GridPosition of(int x,
+                                  int y)
+    {
+        final var cacheX = x - CacheMin;
+        final var cacheY = y - CacheMin;
+        if (cacheX < 0 || cacheY < 0 || cacheX >= CacheSize || cacheY >= CacheSize) {
+            return new GridPosition(x, y);
+        }
+        // racing threads might both create the position but either instance is correct
+        final var index = cacheY * CacheSize + cacheX;
+        var answer = Cache[index];
+        if (answer == null) {
+            answer = new GridPosition(x, y);
+            Cache[index] = answer;
+        }
+        return answer;
+    }
+
     @Override
     public String toString()
     {
@@ -43,7 +72,7 @@ public class GridPosition
     {
         var x = this.x + rand.nextInt(-maxOffset, maxOffset, bias);
         var y = this.y + rand.nextInt(-maxOffset, maxOffset, bias);
-        return new GridPosition(x, y);
+        return GridPosition.of(x, y);
     }
 
     @Override
@@ -58,7 +87,7 @@ public class GridPosition
         }
         var x = this.x + xOffset;
         var y = rand.nextBoolean() ? this.y + yOffset : this.y - yOffset;
-        return new GridPosition(x, y);
+        return GridPosition.of(x, y);
     }
 
     @Override
@@ -83,7 +112,7 @@ public class GridPosition
         } else if (newX == x) {
             newX = maxValue - (x - minValue);
         }
-        return new GridPosition(newX, newY);
+        return GridPosition.of(newX, newY);
     }
 
     @Override
@@ -93,7 +122,7 @@ public class GridPosition
         final GridPosition otherPosition = (GridPosition)other;
         var diffX = x - otherPosition.x;
         var diffY = y - otherPosition.y;
-        return new GridPosition(x + diffX / divisor, y + diffY / divisor);
+        return GridPosition.of(x + diffX / divisor, y + diffY / divisor);
     }
 
     @Override
@@ -116,7 +145,7 @@ public class GridPosition
         }
         final var x = rand.nextInt(minX, maxX, bias);
         final var y = rand.nextInt(minY, maxY, bias);
-        return new GridPosition(x, y);
+        return GridPosition.of(x, y);
     }
 
     @Override
@@ -138,6 +167,6 @@ public class GridPosition
             sumX += ((GridPosition)position).x;
             sumY += ((GridPosition)position).y;
         }
-        return new GridPosition(sumX / positions.size(), sumY / positions.size());
+        return GridPosition.of(sumX / positions.size(), sumY / positions.size());
     }
 }
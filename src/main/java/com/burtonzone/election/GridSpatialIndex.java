@@ -0,0 +1,131 @@
+package com.burtonzone.election;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Items bucketed into a uniform grid of square cells sized to hold a couple of items each.
+ * Queries only measure the items in cells overlapping the square that bounds the search
+ * circle.  Matching items are sorted as packed (distance, index) keys in a per-thread buffer
+ * that grows to the largest number of items any query has had to measure.
+ */
+class GridSpatialIndex<T>
+    extends SpatialIndex<T>
+{
+    private static final int ItemsPerCell = 2;
+    private static final int[] NoIndexes = new int[0];
+    private static final ThreadLocal<long[]> KeyScratch = ThreadLocal.withInitial(() -> new long[0]);
+
+    private final int[] xs;
+    private final int[] ys;
+    private final int minX;
+    private final int minY;
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[] cellStarts;
+    private final int[] cellItems;
+
+    GridSpatialIndex(List<T> items,
+                     List<Position> positions)
+    {
+        super(items);
+        final var size = items.size();
+        xs = new int[size];
+        ys = new int[size];
+        var minX = Integer.MAX_VALUE;
+        var minY = Integer.MAX_VALUE;
+        var maxX = Integer.MIN_VALUE;
+        var maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < size; ++i) {
+            final var position = (GridPosition)positions.get(i);
+            xs[i] = position.getX();
+            ys[i] = position.getY();
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        if (size == 0) {
+            minX = maxX = minY = maxY = 0;
+        }
+        final var extent = Math.max(maxX - minX, maxY - minY) + 1;
+        final var cellsPerSide = Math.max(1, (int)Math.sqrt((double)size / ItemsPerCell));
+        this.minX = minX;
+        this.minY = minY;
+        cellSize = Math.max(1, (extent + cellsPerSide - 1) / cellsPerSide);
+        columns = (maxX - minX) / cellSize + 1;
+        rows = (maxY - minY) / cellSize + 1;
+
+        // items are bucketed in index order so each cell lists its items in index order
+        cellStarts = new int[columns * rows + 1];
+        for (int i = 0; i < size; ++i) {
+            cellStarts[cellOf(i) + 1] += 1;
+        }
+        for (int c = 0; c < columns * rows; ++c) {
+            cellStarts[c + 1] += cellStarts[c];
+        }
+        final var next = Arrays.copyOf(cellStarts, cellStarts.length - 1);
+        cellItems = new int[size];
+        for (int i = 0; i < size; ++i) {
+            cellItems[next[cellOf(i)]++] = i;
+        }
+    }
+
+    @Override
+    public int[] nearestIndexes(Position position,
+                                int maxSquaredDistance,
+                                int maxItems)
+    {
+        if (items.isEmpty()) {
+            return NoIndexes;
+        }
+        final var grid = (GridPosition)position;
+        final var x = grid.getX();
+        final var y = grid.getY();
+        final var radius = (long)Math.ceil(Math.sqrt(maxSquaredDistance));
+        final var firstColumn = clamp(Math.floorDiv(x - radius - minX, cellSize), columns);
+        final var lastColumn = clamp(Math.floorDiv(x + radius - minX, cellSize), columns);
+        final var firstRow = clamp(Math.floorDiv(y - radius - minY, cellSize), rows);
+        final var lastRow = clamp(Math.floorDiv(y + radius - minY, cellSize), rows);
+        var candidateCount = 0;
+        for (int row = firstRow; row <= lastRow; ++row) {
+            candidateCount += cellStarts[row * columns + lastColumn + 1] - cellStarts[row * columns + firstColumn];
+        }
+        var keys = KeyScratch.get();
+        if (keys.length < candidateCount) {
+            keys = new long[candidateCount];
+            KeyScratch.set(keys);
+        }
+        var count = 0;
+        for (int row = firstRow; row <= lastRow; ++row) {
+            final var end = cellStarts[row * columns + lastColumn + 1];
+            for (int c = cellStarts[row * columns + firstColumn]; c < end; ++c) {
+                final var item = cellItems[c];
+                final long diffX = xs[item] - x;
+                final long diffY = ys[item] - y;
+                final var distance = diffX * diffX + diffY * diffY;
+                if (distance <= maxSquaredDistance) {
+                    keys[count++] = (distance << 32) | item;
+                }
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        final var answer = new int[Math.min(count, maxItems)];
+        for (int i = 0; i < answer.length; ++i) {
+            answer[i] = (int)keys[i];
+        }
+        return answer;
+    }
+
+    private int cellOf(int item)
+    {
+        return ((ys[item] - minY) / cellSize) * columns + (xs[item] - minX) / cellSize;
+    }
+
+    private static int clamp(long cell,
+                             int limit)
+    {
+        return (int)Math.max(0, Math.min(cell, limit - 1));
+    }
+}
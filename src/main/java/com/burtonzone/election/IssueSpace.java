@@ -5,6 +5,7 @@ import static com.burtonzone.election.Position.MinPos;
 import static org.javimmutable.collections.util.JImmutables.*;
 
 import com.burtonzone.common.Rand;
+import java.util.Map;
 import org.javimmutable.collections.JImmutableList;
 
 public abstract class IssueSpace
@@ -24,6 +25,11 @@ public abstract class IssueSpace
         this.rand = rand;
     }
 
+    /**
+     * @return an issue space of the same type that draws its random numbers from rand
+     */
+    public abstract IssueSpace withRand(Rand rand);
+
     public abstract boolean isValidPartyPosition(Position pos);
 
     public abstract Position centristPartyPosition();
@@ -48,6 +54,26 @@ public abstract class IssueSpace
             .wrapped(MinPos, MaxPos);
     }
 
+    /**
+     * Every position {@link #voterPosition} can return for the voter center, with the number
+     * of the equally likely random outcomes that produce it.  Positions are in a fixed order.
+     */
+    public abstract Map<Position, Long> voterPositionWeights(Position voterCenterPosition);
+
+    /**
+     * Weight of each offset from -MaxVoterDistance to MaxVoterDistance along one axis of
+     * {@link #voterPosition}.
+     */
+    protected static long[] voterOffsetWeights()
+    {
+        final var cumulative = Rand.cumulativeCounts(2 * MaxVoterDistance + 1, VoterPositionBias);
+        final var answer = new long[cumulative.length];
+        for (int i = 0; i < answer.length; ++i) {
+            answer[i] = cumulative[i] - (i > 0 ? cumulative[i - 1] : 0);
+        }
+        return answer;
+    }
+
     public Position candidatePosition(Position position,
                                       int numberOfParties)
     {
@@ -1,6 +1,8 @@
 package com.burtonzone.election;
 
 import com.burtonzone.common.Rand;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.javimmutable.collections.JImmutableList;
 
 public class LinearIssueSpace
@@ -11,6 +13,12 @@ public class LinearIssueSpace
         super(rand);
     }
 
+    @Override
+    public IssueSpace withRand(Rand rand)
+    {
+        return new LinearIssueSpace(rand);
+    }
+
     @Override
     public Position center()
     {
@@ -28,13 +36,27 @@ public class LinearIssueSpace
     @Override
     public Position centristPartyPosition()
     {
-        return new LinearPosition(rand.nextElement(CenterPartyPoints, PartyPositionBias));
+        return LinearPosition.of(rand.nextElement(CenterPartyPoints, PartyPositionBias));
     }
 
     @Override
     public Position anyPartyPosition()
     {
-        return new LinearPosition(rand.nextElement(PartyPoints, PartyPositionBias));
+        return LinearPosition.of(rand.nextElement(PartyPoints, PartyPositionBias));
+    }
+
+    @Override
+    public Map<Position, Long> voterPositionWeights(Position voterCenterPosition)
+    {
+        final var center = (LinearPosition)voterCenterPosition;
+        final var weights = voterOffsetWeights();
+        final var answer = new LinkedHashMap<Position, Long>();
+        for (int dx = 0; dx < weights.length; ++dx) {
+            final var position = LinearPosition.of(center.getX() + dx - MaxVoterDistance)
+                .wrapped(Position.MinPos, Position.MaxPos);
+            answer.merge(position, weights[dx], Long::sum);
+        }
+        return answer;
     }
 
     @Override
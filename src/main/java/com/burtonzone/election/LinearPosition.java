@@ -9,16 +9,37 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import org.javimmutable.collections.JImmutableList;
 
+/**
+ * Positions are interned the same way as {@link GridPosition}.
+ */
 @AllArgsConstructor
 @EqualsAndHashCode
 public class LinearPosition
     implements Position
 {
-    public static LinearPosition Center = new LinearPosition((MinPos + MaxPos) / 2);
+    private static final int CacheMin = MinPos - (MaxPos - MinPos);
+    private static final int CacheSize = 3 * (MaxPos - MinPos) + 1;
+    private static final LinearPosition[] Cache = new LinearPosition[CacheSize];
+
+    public static LinearPosition Center = of((MinPos + MaxPos) / 2);
 
     @Getter
     private final int x;
 
+    public static LinearPosition of(int x)
+    {
+        final var index = x - CacheMin;
+        if (index < 0 || index >= CacheSize) {
+            return new LinearPosition(x);
+        }
+        var answer = Cache[index];
+        if (answer == null) {
+            answer = new LinearPosition(x);
+            Cache[index] = answer;
+        }
+        return answer;
+    }
+
     @Override
     public String toString()
     {
@@ -39,7 +60,7 @@ public class LinearPosition
                                  int bias)
     {
         var position = this.x + rand.nextInt(-maxOffset, maxOffset, bias);
-        return new LinearPosition(position);
+        return LinearPosition.of(position);
     }
 
     @Override
@@ -47,7 +68,7 @@ public class LinearPosition
                                  int distance)
     {
         var offset = rand.nextBoolean() ? -distance : distance;
-        return new LinearPosition(x + offset);
+        return LinearPosition.of(x + offset);
     }
 
     @Override
@@ -64,7 +85,7 @@ public class LinearPosition
         if (newX == x) {
             return this;
         } else {
-            return new LinearPosition(newX);
+            return LinearPosition.of(newX);
         }
     }
 
@@ -74,7 +95,7 @@ public class LinearPosition
     {
         var otherPosition = (LinearPosition)other;
         var diff = x - otherPosition.x;
-        return new LinearPosition(x + diff / divisor);
+        return LinearPosition.of(x + diff / divisor);
     }
 
     @Override
@@ -91,7 +112,7 @@ public class LinearPosition
             maxX = Math.max(maxX, posX);
         }
         final var x = rand.nextInt(minX, maxX, bias);
-        return new LinearPosition(x);
+        return LinearPosition.of(x);
     }
 
     @Override
@@ -107,6 +128,6 @@ public class LinearPosition
         for (Position position : positions) {
             sumX += ((LinearPosition)position).x;
         }
-        return new LinearPosition(sumX / positions.size());
+        return LinearPosition.of(sumX / positions.size());
     }
 }
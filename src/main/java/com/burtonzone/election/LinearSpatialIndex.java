@@ -0,0 +1,107 @@
+package com.burtonzone.election;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Items sorted by x.  Queries start at the query position and walk outwards in both
+ * directions taking whichever side is closer, so they stop as soon as enough items are
+ * found or both sides are beyond the maximum distance.  Items with the same x form a group
+ * that is always taken as a whole in index order.
+ */
+class LinearSpatialIndex<T>
+    extends SpatialIndex<T>
+{
+    private final int[] xs;
+    private final int[] indexes;
+
+    LinearSpatialIndex(List<T> items,
+                       List<Position> positions)
+    {
+        super(items);
+        final var size = items.size();
+        final var keys = new long[size];
+        for (int i = 0; i < size; ++i) {
+            keys[i] = ((long)((LinearPosition)positions.get(i)).getX() << 32) | i;
+        }
+        Arrays.sort(keys);
+        xs = new int[size];
+        indexes = new int[size];
+        for (int i = 0; i < size; ++i) {
+            xs[i] = (int)(keys[i] >> 32);
+            indexes[i] = (int)keys[i];
+        }
+    }
+
+    @Override
+    public int[] nearestIndexes(Position position,
+                                int maxSquaredDistance,
+                                int maxItems)
+    {
+        if (items.isEmpty()) {
+            return new int[0];
+        }
+        final var x = ((LinearPosition)position).getX();
+        final var answer = new int[Math.min(maxItems, xs.length)];
+        var count = 0;
+        var right = lowerBound(x);
+        var left = right - 1;
+        while (count < maxItems) {
+            final var leftDistance = left >= 0 ? squaredDistance(x, xs[left]) : Long.MAX_VALUE;
+            final var rightDistance = right < xs.length ? squaredDistance(x, xs[right]) : Long.MAX_VALUE;
+            final var distance = Math.min(leftDistance, rightDistance);
+            if (distance == Long.MAX_VALUE || distance > maxSquaredDistance) {
+                break;
+            }
+            var leftStart = left + 1;
+            if (leftDistance == distance) {
+                leftStart = left;
+                while (leftStart > 0 && xs[leftStart - 1] == xs[left]) {
+                    leftStart -= 1;
+                }
+            }
+            var rightEnd = right;
+            if (rightDistance == distance) {
+                while (rightEnd < xs.length && xs[rightEnd] == xs[right]) {
+                    rightEnd += 1;
+                }
+            }
+            // merge the left and right groups in index order, one of them might be empty
+            var i = leftStart;
+            var j = right;
+            while (count < maxItems && (i <= left || j < rightEnd)) {
+                if (j >= rightEnd || (i <= left && indexes[i] < indexes[j])) {
+                    answer[count] = indexes[i++];
+                } else {
+                    answer[count] = indexes[j++];
+                }
+                count += 1;
+            }
+            left = leftStart - 1;
+            right = rightEnd;
+        }
+        return count == answer.length ? answer : Arrays.copyOf(answer, count);
+    }
+
+    private int lowerBound(int x)
+    {
+        var low = 0;
+        var high = xs.length;
+        while (low < high) {
+            final var mid = (low + high) >>> 1;
+            if (xs[mid] < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long squaredDistance(int a,
+                                        int b)
+    {
+        final long diff = a - b;
+        return diff * diff;
+    }
+}
@@ -1,10 +1,16 @@
 package com.burtonzone.election;
 
+import static com.burtonzone.common.Decimal.*;
 import static org.javimmutable.collections.util.JImmutables.*;
 
+import com.burtonzone.common.Decimal;
 import com.burtonzone.common.Rand;
+import com.google.common.cache.CacheBuilder;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Stream;
 import lombok.AllArgsConstructor;
 import org.javimmutable.collections.JImmutableList;
 import org.javimmutable.collections.JImmutableListMap;
@@ -13,20 +19,63 @@ import org.javimmutable.collections.util.JImmutables;
 public class PositionalElectionFactory
     implements ElectionFactory
 {
-    private static final int VotersPerSeat = 500;
     private static final int VoterTolerance = Position.toSquaredDistance(25);
+    private static final int MaxCachedCandidateLists = 1000;
 
     private final Rand rand;
     private final IssueSpace issueSpace;
     private final Position center;
-    private final AtomicInteger ids = new AtomicInteger(1);
+    private final AtomicInteger ids;
+    /**
+     * Party preferences of a voter depend only on the parties and the voter's position so they
+     * are shared by every election (in every thread) created by this factory or the factories
+     * it creates for districts.
+     */
+    private final Map<JImmutableList<Party>, Map<Position, JImmutableList<Party>>> partyPreferences;
+    /**
+     * Likewise the order of a list of candidates from a voter's position depends only on the
+     * list and the position, so elections with the same candidates share their orders.  Every
+     * district normally has candidates of its own so the number of lists kept is bounded.
+     */
+    private final Map<JImmutableList<Candidate>, Map<Position, CandidateOrder>> candidatePreferences;
 
     public PositionalElectionFactory(Rand rand,
                                      IssueSpace issueSpace)
+    {
+        this(rand,
+             issueSpace,
+             new AtomicInteger(1),
+             new ConcurrentHashMap<>(),
+             CacheBuilder.newBuilder().maximumSize(MaxCachedCandidateLists).<JImmutableList<Candidate>, Map<Position, CandidateOrder>>build().asMap());
+    }
+
+    private PositionalElectionFactory(Rand rand,
+                                      IssueSpace issueSpace,
+                                      AtomicInteger ids,
+                                      Map<JImmutableList<Party>, Map<Position, JImmutableList<Party>>> partyPreferences,
+                                      Map<JImmutableList<Candidate>, Map<Position, CandidateOrder>> candidatePreferences)
     {
         this.rand = rand;
         this.issueSpace = issueSpace;
         this.center = issueSpace.center();
+        this.ids = ids;
+        this.partyPreferences = partyPreferences;
+        this.candidatePreferences = candidatePreferences;
+    }
+
+    /**
+     * Reserves the block of candidate ids the district's election will use so that candidate
+     * names are the same as when every election is created in order by a single factory.
+     */
+    @Override
+    public ElectionFactory forDistrict(ElectionSettings settings,
+                                       int round,
+                                       int district)
+    {
+        final var districtRand = rand.split(round).split(district);
+        final var numIds = 2 * settings.getParties().size() * settings.getNumberOfSeats();
+        final var firstId = ids.getAndAdd(numIds);
+        return new PositionalElectionFactory(districtRand, issueSpace.withRand(districtRand), new AtomicInteger(firstId), partyPreferences, candidatePreferences);
     }
 
     @Override
@@ -34,14 +83,18 @@ public class PositionalElectionFactory
     {
         final var parties = settings.getParties();
         final var numSeats = settings.getNumberOfSeats();
-        final var numVoters = numSeats * VotersPerSeat;
+        final var numVoters = Math.multiplyExact(numSeats, settings.getVotersPerSeat());
         final var voterCenter = issueSpace.voterCenterPosition(parties);
-        final var voters = createVoters(parties, voterCenter, numVoters);
         final var candidates = createCandidates(parties, numSeats);
         final var auxiliaryCandidates = createCandidates(parties, numSeats);
         final var partyLists = Candidate.createPartyLists(parties, candidates);
-        final var ballotBox = createBallotBox(voters, candidates, partyLists, settings);
-        return new Election(settings.getRegion(), parties, candidates, auxiliaryCandidates, partyLists, ballotBox, numSeats);
+        final var electorate = new Electorate(settings, candidates, partyLists);
+        if (settings.getVoterModel() == ElectionSettings.VoterModel.Sampled) {
+            addSampledVoters(electorate, voterCenter, numVoters);
+        } else {
+            addWeightedVoters(electorate, voterCenter, numVoters, settings.getVoterModel());
+        }
+        return new Election(settings.getRegion(), parties, candidates, auxiliaryCandidates, partyLists, electorate.createBallotBox(), numSeats);
     }
 
     @Override
@@ -79,82 +132,60 @@ public class PositionalElectionFactory
             .collect(listCollector());
     }
 
-    private BallotBox createBallotBox(JImmutableList<Voter> voters,
-                                      JImmutableList<Candidate> candidates,
-                                      JImmutableListMap<Party, Candidate> partyLists,
-                                      ElectionSettings settings)
+    /**
+     * Draws each voter's position at random and adds them straight to the electorate.
+     * Positions with no party close enough are rejected and drawn again.
+     */
+    private void addSampledVoters(Electorate electorate,
+                                  Position voterCenter,
+                                  int numVoters)
     {
-        final var ballotBox = BallotBox.builder();
-        for (Voter voter : voters) {
-            var choices = JImmutables.<Candidate>list();
-            if (settings.getVoteType() == ElectionSettings.VoteType.PartyList) {
-                choices = createPartyListBallot(voter, partyLists, settings.getMaxPartyChoices());
-            } else if (settings.getVoteType() == ElectionSettings.VoteType.Mixed
-                       && rand.nextInt(1, 100) <= settings.getMixedPartyVotePercentage()) {
-                choices = createPartyListBallot(voter, partyLists, settings.getMaxPartyChoices());
-            } else if (settings.getVoteType() == ElectionSettings.VoteType.PartyCandidate) {
-                choices = createPartyCandidateBallot(voter, candidates, settings.getMaxPartyChoices());
-            } else {
-                choices = createCandidateOrientedBallot(candidates, voter.position, settings);
-            }
-            if (choices.isNonEmpty()) {
-                ballotBox.add(new Ballot(choices, voter.parties.get(0)));
+        var remainingVoters = numVoters;
+        while (remainingVoters > 0) {
+            if (electorate.addVoter(issueSpace.voterPosition(voterCenter))) {
+                remainingVoters -= 1;
             }
         }
-        return ballotBox.build();
-    }
-
-    private JImmutableList<Voter> createVoters(JImmutableList<Party> parties,
-                                               Position voterCenter,
-                                               int maxVoters)
-    {
-        return Stream.generate(() -> issueSpace.voterPosition(voterCenter))
-            .map(position -> new Voter(position,
-                                       parties.stream()
-                                           .filter(p -> p.getPosition().squaredDistanceTo(position) <= VoterTolerance)
-                                           .sorted(Party.distanceComparator(position))
-                                           .collect(listCollector())))
-            .filter(Voter::isValid)
-            .limit(maxVoters)
-            .collect(listCollector());
-    }
-
-    private JImmutableList<Candidate> createCandidateOrientedBallot(JImmutableList<Candidate> candidates,
-                                                                    Position position,
-                                                                    ElectionSettings settings)
-    {
-        final var maxCandidates = Math.min(settings.getMaxCandidateChoices(),
-                                           settings.getMaxPartyChoices() * settings.getNumberOfSeats());
-        return candidates.stream()
-            .filter(c -> c.getPosition().squaredDistanceTo(position) <= VoterTolerance)
-            .sorted(Candidate.distanceComparator(position))
-            .limit(maxCandidates)
-            .collect(JImmutables.listCollector());
-    }
-
-    private JImmutableList<Candidate> createPartyCandidateBallot(Voter voter,
-                                                                 JImmutableList<Candidate> candidates,
-                                                                 int maxParties)
-    {
-        final var sortedCandidates = candidates.stream()
-            .sorted(Candidate.distanceComparator(voter.position))
-            .collect(listCollector());
-        return voter.parties.stream()
-            .limit(maxParties)
-            .flatMap(party ->
-                         sortedCandidates.stream()
-                             .filter(c -> c.getParty().equals(party)))
-            .collect(listCollector());
     }
 
-    private JImmutableList<Candidate> createPartyListBallot(Voter voter,
-                                                            JImmutableListMap<Party, Candidate> partyLists,
-                                                            int maxParties)
+    /**
+     * Spreads the voters over every position {@link IssueSpace#voterPosition} could produce.
+     * Positions with no party close enough are dropped just as sampling would reject them.
+     * Expected gives each position its exact (usually fractional) share of the voters.
+     * Multinomial draws whole numbers of voters one position at a time using conditional
+     * binomials.
+     */
+    private void addWeightedVoters(Electorate electorate,
+                                   Position voterCenter,
+                                   int numVoters,
+                                   ElectionSettings.VoterModel voterModel)
     {
-        return voter.parties.stream()
-            .limit(maxParties)
-            .flatMap(p -> partyLists.getList(p).stream())
-            .collect(listCollector());
+        final var positionWeights = issueSpace.voterPositionWeights(voterCenter);
+        var totalWeight = 0L;
+        for (var e : positionWeights.entrySet()) {
+            if (electorate.isValid(e.getKey())) {
+                totalWeight += e.getValue();
+            }
+        }
+        final var total = new Decimal(BigDecimal.valueOf(totalWeight));
+        final var scale = new Decimal(numVoters);
+        var remainingVoters = numVoters;
+        var remainingWeight = totalWeight;
+        for (var e : positionWeights.entrySet()) {
+            final var position = e.getKey();
+            final long weight = e.getValue();
+            if (!electorate.isValid(position)) {
+                continue;
+            }
+            if (voterModel == ElectionSettings.VoterModel.Multinomial) {
+                final var count = rand.nextBinomial(remainingVoters, (double)weight / remainingWeight);
+                electorate.addVoters(position, new Decimal(count));
+                remainingVoters -= count;
+                remainingWeight -= weight;
+            } else {
+                electorate.addVoters(position, scale.times(new Decimal(BigDecimal.valueOf(weight))).divide(total));
+            }
+        }
     }
 
     public JImmutableList<Candidate> createCandidates(JImmutableList<Party> parties,
@@ -177,15 +208,231 @@ public class PositionalElectionFactory
         return positions.transform(list(), p -> new Candidate(party, p.toString() + "-" + ids.getAndIncrement(), p));
     }
 
+    /**
+     * Accumulates voters as they are generated.  Every voter at a position has the same party
+     * preferences and casts one of the same two ballots (party list or not), so only the number
+     * of voters casting each at each position is recorded.  Ballots are created once per
+     * position when the ballot box is built.
+     */
+    private class Electorate
+    {
+        private final ElectionSettings settings;
+        private final JImmutableListMap<Party, Candidate> partyLists;
+        private final SpatialIndex<Party> parties;
+        private final SpatialIndex<Candidate> candidates;
+        private final Map<Position, JImmutableList<Party>> cellParties;
+        private final Map<Position, CandidateOrder> cellCandidates;
+        private final Map<Position, VoterGroup> voters = new LinkedHashMap<>();
+
+        /**
+         * Indexes the positions of the parties and the candidates once per election so that
+         * every voter position's preferences come from index queries instead of sorting with
+         * distance comparators.
+         */
+        private Electorate(ElectionSettings settings,
+                           JImmutableList<Candidate> candidates,
+                           JImmutableListMap<Party, Candidate> partyLists)
+        {
+            this.settings = settings;
+            this.partyLists = partyLists;
+            this.parties = SpatialIndex.of(settings.getParties(), Party::getPosition);
+            this.candidates = SpatialIndex.of(candidates, Candidate::getPosition);
+            this.cellParties = partyPreferences.computeIfAbsent(settings.getParties(), p -> new ConcurrentHashMap<>());
+            this.cellCandidates = candidatePreferences.computeIfAbsent(candidates, c -> new ConcurrentHashMap<>());
+        }
+
+        /**
+         * A position is valid if it has at least one party close enough to consider.  Checking
+         * does not add the position to the electorate.
+         */
+        private boolean isValid(Position position)
+        {
+            return preferredParties(position).isNonEmpty();
+        }
+
+        /**
+         * Adds a single voter unless they have no party close enough to consider.
+         *
+         * @return true if the voter was added
+         */
+        private boolean addVoter(Position position)
+        {
+            if (!isValid(position)) {
+                return false;
+            }
+            final var voter = voterAt(position);
+            final var voteType = settings.getVoteType();
+            if (voteType == ElectionSettings.VoteType.PartyList
+                || (voteType == ElectionSettings.VoteType.Mixed && rand.nextInt(1, 100) <= settings.getMixedPartyVotePercentage())) {
+                voter.partyVoters += 1;
+            } else {
+                voter.otherVoters += 1;
+            }
+            return true;
+        }
+
+        /**
+         * Adds a (possibly fractional) number of voters to a position.  Mixed votes are split
+         * into their exact expected share for Expected and a binomial draw for Multinomial.
+         * The position must be valid.  Positions that receive no voters are not added.
+         */
+        private void addVoters(Position position,
+                               Decimal count)
+        {
+            if (count.isNegOrZero()) {
+                return;
+            }
+            final var voter = voterAt(position);
+            var partyVotes = ZERO;
+            if (settings.getVoteType() == ElectionSettings.VoteType.PartyList) {
+                partyVotes = count;
+            } else if (settings.getVoteType() == ElectionSettings.VoteType.Mixed) {
+                final var percentage = settings.getMixedPartyVotePercentage();
+                partyVotes = settings.getVoterModel() == ElectionSettings.VoterModel.Multinomial
+                             ? new Decimal(rand.nextBinomial(count.toInt(), percentage / 100.0))
+                             : count.times(new Decimal(percentage)).divide(HUNDRED);
+            }
+            voter.partyWeight = voter.partyWeight.plus(partyVotes);
+            voter.otherWeight = voter.otherWeight.plus(count.minus(partyVotes));
+        }
+
+        private BallotBox createBallotBox()
+        {
+            final var ballotBox = BallotBox.builder();
+            for (VoterGroup voter : voters.values()) {
+                final var partyVotes = voter.partyWeight.plus(voter.partyVoters);
+                final var otherVotes = voter.otherWeight.plus(voter.otherVoters);
+                if (!partyVotes.isNegOrZero()) {
+                    addBallot(ballotBox, voter, createPartyListBallot(voter), partyVotes);
+                }
+                if (!otherVotes.isNegOrZero()) {
+                    final var choices = settings.getVoteType() == ElectionSettings.VoteType.PartyCandidate
+                                        ? createPartyCandidateBallot(voter)
+                                        : createCandidateOrientedBallot(voter);
+                    addBallot(ballotBox, voter, choices, otherVotes);
+                }
+            }
+            return ballotBox.build();
+        }
+
+        /**
+         * Candidates are ranked nearest first so the ballot is a prefix of the position's
+         * candidate order.
+         */
+        private JImmutableList<Candidate> createCandidateOrientedBallot(VoterGroup voter)
+        {
+            final var order = candidateOrder(voter.position);
+            final var maxCandidates = Math.min(settings.getMaxCandidateChoices(),
+                                               settings.getMaxPartyChoices() * settings.getNumberOfSeats());
+            final JImmutableList.Builder<Candidate> answer = listBuilder();
+            for (int i = 0; i < Math.min(order.nearby, maxCandidates); ++i) {
+                answer.add(candidates.get(order.indexes[i]));
+            }
+            return answer.build();
+        }
+
+        /**
+         * Every candidate of each preferred party in turn, each party's in the position's
+         * candidate order.  The order is scanned once and split by party.
+         */
+        private JImmutableList<Candidate> createPartyCandidateBallot(VoterGroup voter)
+        {
+            final var order = candidateOrder(voter.position);
+            final var chosenParties = voter.parties.slice(0, Math.min(voter.parties.size(), settings.getMaxPartyChoices()));
+            final var partyChoices = new LinkedHashMap<Party, JImmutableList.Builder<Candidate>>();
+            for (Party party : chosenParties) {
+                partyChoices.put(party, listBuilder());
+            }
+            for (int index : order.indexes) {
+                final var candidate = candidates.get(index);
+                final var choices = partyChoices.get(candidate.getParty());
+                if (choices != null) {
+                    choices.add(candidate);
+                }
+            }
+            final JImmutableList.Builder<Candidate> answer = listBuilder();
+            for (JImmutableList.Builder<Candidate> choices : partyChoices.values()) {
+                for (Candidate candidate : choices.build()) {
+                    answer.add(candidate);
+                }
+            }
+            return answer.build();
+        }
+
+        private JImmutableList<Candidate> createPartyListBallot(VoterGroup voter)
+        {
+            return voter.parties.stream()
+                .limit(settings.getMaxPartyChoices())
+                .flatMap(p -> partyLists.getList(p).stream())
+                .collect(listCollector());
+        }
+
+        private void addBallot(BallotBox.Builder ballotBox,
+                               VoterGroup voter,
+                               JImmutableList<Candidate> choices,
+                               Decimal votes)
+        {
+            if (choices.isNonEmpty()) {
+                ballotBox.add(new Ballot(choices, voter.parties.get(0)), votes);
+            }
+        }
+
+        private VoterGroup voterAt(Position position)
+        {
+            return voters.computeIfAbsent(position, p -> new VoterGroup(p, preferredParties(p)));
+        }
+
+        private JImmutableList<Party> preferredParties(Position position)
+        {
+            return cellParties.computeIfAbsent(position, p -> parties.nearest(p, VoterTolerance, Integer.MAX_VALUE));
+        }
+
+        private CandidateOrder candidateOrder(Position position)
+        {
+            return cellCandidates.computeIfAbsent(position, this::computeCandidateOrder);
+        }
+
+        private CandidateOrder computeCandidateOrder(Position position)
+        {
+            final var indexes = candidates.nearestIndexes(position, Integer.MAX_VALUE, Integer.MAX_VALUE);
+            var nearby = 0;
+            while (nearby < indexes.length && candidates.get(indexes[nearby]).getPosition().squaredDistanceTo(position) <= VoterTolerance) {
+                nearby += 1;
+            }
+            return new CandidateOrder(indexes, nearby);
+        }
+    }
+
+    /**
+     * Every candidate of an election ordered nearest first from one position, as indexes into
+     * the election's candidate list.  The first nearby candidates are within the voter tolerance.
+     * Every type of ballot cast from the position is taken from this order.
+     */
     @AllArgsConstructor
-    private static class Voter
+    private static class CandidateOrder
+    {
+        private final int[] indexes;
+        private final int nearby;
+    }
+
+    /**
+     * All of the voters at one position.  Whole voters and weighted voters are counted
+     * separately so that adding a single voter does not need any arithmetic on decimals.
+     */
+    private static class VoterGroup
     {
-        Position position;
-        JImmutableList<Party> parties;
+        private final Position position;
+        private final JImmutableList<Party> parties;
+        private int partyVoters;
+        private int otherVoters;
+        private Decimal partyWeight = ZERO;
+        private Decimal otherWeight = ZERO;
 
-        private boolean isValid()
+        private VoterGroup(Position position,
+                           JImmutableList<Party> parties)
         {
-            return parties.isNonEmpty();
+            this.position = position;
+            this.parties = parties;
         }
     }
 }
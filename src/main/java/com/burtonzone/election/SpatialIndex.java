@@ -0,0 +1,85 @@
+package com.burtonzone.election;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.util.JImmutables;
+
+/**
+ * Index of items by their {@link Position} that answers "nearest items within a distance"
+ * queries without measuring the distance to every item.  Results are ordered by distance
+ * with ties in the order the items were given to {@link #of}.  That is the same order as
+ * a stable sort of the items using a {@link DistanceComparator}.
+ */
+public abstract class SpatialIndex<T>
+{
+    protected final List<T> items;
+
+    protected SpatialIndex(List<T> items)
+    {
+        this.items = items;
+    }
+
+    public static <T> SpatialIndex<T> of(JImmutableList<T> items,
+                                         Function<T, Position> getter)
+    {
+        final var itemList = new ArrayList<T>(items.size());
+        final var positions = new ArrayList<Position>(items.size());
+        for (T item : items) {
+            itemList.add(item);
+            positions.add(getter.apply(item));
+        }
+        if (positions.stream().allMatch(p -> p instanceof LinearPosition)) {
+            return new LinearSpatialIndex<>(itemList, positions);
+        } else {
+            return new GridSpatialIndex<>(itemList, positions);
+        }
+    }
+
+    public int size()
+    {
+        return items.size();
+    }
+
+    /**
+     * @return the item with this index (its position in the list given to {@link #of})
+     */
+    public T get(int index)
+    {
+        return items.get(index);
+    }
+
+    /**
+     * @param position           center of the search
+     * @param maxSquaredDistance items further than this (squared) distance are excluded
+     * @param maxItems           at most this many items are returned
+     * @return indexes of the nearest items in order of increasing distance
+     */
+    public abstract int[] nearestIndexes(Position position,
+                                         int maxSquaredDistance,
+                                         int maxItems);
+
+    /**
+     * @return the nearest items in order of increasing distance
+     * @see #nearestIndexes
+     */
+    public JImmutableList<T> nearest(Position position,
+                                     int maxSquaredDistance,
+                                     int maxItems)
+    {
+        final JImmutableList.Builder<T> answer = JImmutables.listBuilder();
+        for (int index : nearestIndexes(position, maxSquaredDistance, maxItems)) {
+            answer.add(items.get(index));
+        }
+        return answer.build();
+    }
+
+    /**
+     * @return all items in order of increasing distance
+     */
+    public JImmutableList<T> nearest(Position position)
+    {
+        return nearest(position, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+}
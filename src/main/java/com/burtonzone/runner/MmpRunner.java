@@ -3,8 +3,10 @@ package com.burtonzone.runner;
 import static org.javimmutable.collections.util.JImmutables.*;
 
 import com.burtonzone.ResultsReport;
+import com.burtonzone.common.CostScheduler;
 import com.burtonzone.common.Counter;
 import com.burtonzone.common.Decimal;
+import com.burtonzone.common.WorkPool;
 import com.burtonzone.election.BallotBox;
 import com.burtonzone.election.Candidate;
 import com.burtonzone.election.CandidateVotes;
@@ -44,21 +46,42 @@ public class MmpRunner
         return districtRunner.runElection(election);
     }
 
+    /**
+     * Regions are independent so in parallel they are evaluated at the same time, most costly
+     * region first.  Their results are then combined in region order into a single set of
+     * builders.
+     */
     @Override
     public Results runElections(Elections elections)
     {
         final var regionalElections = elections.splitRegions();
-        RegionalResults combinedResults = null;
-        for (Elections regionalElection : regionalElections) {
-            final var regionalResults = runDistrictElections(regionalElection);
-            if (combinedResults == null) {
-                combinedResults = regionalResults;
-            } else {
-                combinedResults = combinedResults.add(regionalResults);
-            }
+        final JImmutableList<RegionalResults> regionalResults;
+        if (elections.isParallel()) {
+            regionalResults = elections.getWorkPool().invoke(
+                () -> CostScheduler.map(regionalElections, MmpRunner::estimateCost, this::runDistrictElections));
+        } else {
+            regionalResults = regionalElections.transform(this::runDistrictElections);
+        }
+        if (regionalResults.isEmpty()) {
+            throw new IllegalArgumentException("no elections");
+        }
+        final var combinedResults = new CombinedResults();
+        for (RegionalResults results : regionalResults) {
+            combinedResults.add(results);
         }
-        assert combinedResults != null;
-        return combinedResults.toElectionResults(elections.isParallel());
+        return combinedResults.build(elections.getWorkPool());
+    }
+
+    /**
+     * MMP does not stream.  List seats depend on the votes in every district of a region so
+     * the whole round is created, in district order, before any of it is counted and every
+     * district's ballots are held until the report is built.
+     */
+    @Override
+    public ResultsReport reportElections(DistrictMap.Round round,
+                                         WorkPool workPool)
+    {
+        return runElections(round.create(workPool)).getReport();
     }
 
     private RegionalResults runDistrictElections(Elections elections)
@@ -77,6 +100,13 @@ public class MmpRunner
         return new RegionalResults(elections.getElections(), pluralityResults.getResults(), list(effectiveResults));
     }
 
+    private static long estimateCost(Elections elections)
+    {
+        return elections.getElections().stream()
+            .mapToLong(Election::estimateCost)
+            .sum();
+    }
+
     private void ensureAllElectionsAreSingleSeat(Elections elections)
     {
         for (Election election : elections.getElections()) {
@@ -96,15 +126,20 @@ public class MmpRunner
             .flatMap(e -> e.getExpandedCandidateList().stream())
             .collect(listCollector());
         final var partyLists = Candidate.createPartyLists(parties, candidates);
-        final var partyVotes = districts.transform(Election::getPartyVotes)
-            .reduce(new Counter<Party>(), Counter::add);
+        final var partyVotes = districts.stream()
+            .map(Election::getPartyVotes)
+            .collect(Counter.collectSum());
         final int districtSeats = districts.stream()
             .mapToInt(Election::getSeats)
             .sum();
         final var seats = seatsCalculator.applyAsInt(districtSeats);
         final int listSeats = seats - districtSeats;
-        final var ballots = districts
-            .reduce(BallotBox.Empty, (sum, e) -> sum.add(e.getBallots()))
+        var districtBallots = districts.stream().map(Election::getBallots);
+        if (elections.isParallel()) {
+            districtBallots = districtBallots.parallel();
+        }
+        final var ballots = districtBallots
+            .collect(BallotBox.collectSum())
             .toSingleChoiceBallots();
         return new MmpElectionDetails(parties, candidates, partyLists, partyVotes, districtSeats, listSeats, seats, ballots);
     }
@@ -113,7 +148,7 @@ public class MmpRunner
                                                 JImmutableList<Candidate> districtWinners)
     {
         final var filteredParties = computePartiesToFilter(details.partyVotes, districtWinners);
-        final var partyBallots = details.ballots.withoutBallotsMatching(b -> b.partyIn(filteredParties));
+        final var partyBallots = details.ballots.withoutBallotsForParties(filteredParties);
         final var partyElection = details.toElection(partyBallots);
         return partyRunner.runMppPartyElection(partyElection, districtWinners);
     }
@@ -200,19 +235,42 @@ public class MmpRunner
         private final JImmutableList<Election> elections;
         private final JImmutableList<ElectionResult> pluralityResults;
         private final JImmutableList<ElectionResult> partyResults;
+    }
+
+    /**
+     * Appends each region's results to mutable builders and adds its party results to the
+     * report's running totals as it goes, so combining regions never copies the lists or
+     * counters built so far.
+     */
+    private static class CombinedResults
+    {
+        private final JImmutableList.Builder<Election> elections = listBuilder();
+        private final JImmutableList.Builder<ElectionResult> pluralityResults = listBuilder();
+        private final JImmutableList.Builder<ElectionResult> partyResults = listBuilder();
+        private final ResultsReport.Accumulator report = new ResultsReport.Accumulator();
 
-        private RegionalResults add(RegionalResults other)
+        private void add(RegionalResults results)
         {
-            return new RegionalResults(elections.insertAll(other.elections),
-                                       pluralityResults.insertAll(other.pluralityResults),
-                                       partyResults.insertAll(other.partyResults));
+            for (Election election : results.elections) {
+                elections.add(election);
+            }
+            for (ElectionResult result : results.pluralityResults) {
+                pluralityResults.add(result);
+            }
+            for (ElectionResult result : results.partyResults) {
+                partyResults.add(result);
+                report.add(result);
+            }
         }
 
-        private Results toElectionResults(boolean parallel)
+        private Results build(WorkPool workPool)
         {
-            return new Results(new Elections(elections, parallel),
-                               pluralityResults.insertAll(partyResults),
-                               ResultsReport.of(partyResults));
+            for (ElectionResult result : partyResults.build()) {
+                pluralityResults.add(result);
+            }
+            return new Results(new Elections(elections.build(), workPool),
+                               pluralityResults.build(),
+                               report.build());
         }
     }
 }
@@ -7,6 +7,9 @@ import static org.javimmutable.collections.util.JImmutables.*;
 
 import com.burtonzone.common.Counter;
 import com.burtonzone.common.Decimal;
+import com.burtonzone.common.IndexedHeap;
+import com.burtonzone.common.Ordinals;
+import com.burtonzone.common.Tally;
 import com.burtonzone.election.BallotBox;
 import com.burtonzone.election.Candidate;
 import com.burtonzone.election.CandidateVotes;
@@ -14,6 +17,7 @@ import com.burtonzone.election.Election;
 import com.burtonzone.election.ElectionResult;
 import com.burtonzone.election.ElectionRunner;
 import com.burtonzone.election.Party;
+import java.util.Arrays;
 import java.util.Comparator;
 import lombok.Builder;
 import lombok.Value;
@@ -66,10 +70,12 @@ public class OpenListRunner
     {
         private final Election election;
         private final BallotBox effectiveBallots;
+        private final Ordinals<Party> parties;
+        private final Tally partyTally;
         private final Counter<Candidate> candidateVotes;
         private final Counter<Party> partyVotes;
         private final JImmutableListMap<Party, Candidate> partyLists;
-        private Counter<Party> partySeats;
+        private int[] partySeats;
         private JImmutableSetMap<Party, Candidate> elected;
         private JImmutableSetMap<Party, Candidate> voted;
         private JImmutableSetMap<Party, Candidate> selected;
@@ -78,10 +84,20 @@ public class OpenListRunner
         {
             this.election = election;
             effectiveBallots = selectPartyVotesForSeatAllocation(election.getBallots().toSingleChoiceBallots());
-            candidateVotes = effectiveBallots.getFirstChoiceCandidateVotes();
-            partyVotes = effectiveBallots.getPartyVotes();
+            final var candidates = effectiveBallots.getCandidateOrdinals();
+            final var candidateTally = new Tally(candidates.size());
+            parties = election.getPartyOrdinals();
+            partyTally = new Tally(parties.size());
+            final var partyMap = effectiveBallots.getPartyOrdinals().mapTo(parties);
+            for (int b = 0; b < effectiveBallots.size(); ++b) {
+                final var count = effectiveBallots.getCount(b);
+                candidateTally.add(effectiveBallots.getChoice(b, 0), count);
+                partyTally.add(partyMap[effectiveBallots.getPartyOrdinal(b)], count);
+            }
+            candidateVotes = candidateTally.toCounter(candidates);
+            partyVotes = partyTally.toCounter(parties);
             partyLists = selectPartyLists();
-            partySeats = new Counter<>();
+            partySeats = new int[parties.size()];
             elected = JImmutables.setMap();
             voted = JImmutables.setMap();
             selected = JImmutables.setMap();
@@ -89,52 +105,71 @@ public class OpenListRunner
 
         private void allocateSeatsToParties()
         {
-            var partySeats = new Counter<Party>();
+            final var partySeats = new int[parties.size()];
+            var filledSeats = 0;
             for (Party party : elected.keys()) {
-                partySeats = partySeats.add(party, filledSeatsForParty(party));
+                final var seats = filledSeatsForParty(party);
+                partySeats[parties.ordinal(party)] = seats;
+                filledSeats += seats;
             }
             if (config.seatAllocator == Config.PartySeatAllocator.Hare) {
-                partySeats = computePartySeatsUsingHareQuotas(partySeats);
+                computePartySeatsUsingHareQuotas(partySeats, filledSeats);
             } else {
-                partySeats = computePartySeatsUsingFormula(partySeats);
+                computePartySeatsUsingFormula(partySeats, filledSeats);
             }
-            assert partySeats.getTotal().toInt() == election.getSeats();
+            assert Arrays.stream(partySeats).sum() == election.getSeats();
             this.partySeats = partySeats;
         }
 
-        private Counter<Party> computePartySeatsUsingFormula(Counter<Party> partySeats)
+        /**
+         * Highest averages allocation.  Parties are kept in a heap ordered by their adjusted votes
+         * (lowest ordinal first on ties) so each seat only recomputes the adjusted votes of the
+         * party that just won it.
+         */
+        private void computePartySeatsUsingFormula(int[] partySeats,
+                                                   int filledSeats)
         {
-            final var totalSeats = new Decimal(election.getSeats());
-            while (partySeats.getTotal().isLessThan(totalSeats)) {
-                final var topParty = findPartyWithHighestAdjustedVotes(partySeats);
-                partySeats = partySeats.inc(topParty);
+            final var adjustedVotes = new Decimal[partySeats.length];
+            final var heap = new IndexedHeap(partySeats.length, (a, b) -> {
+                final var diff = adjustedVotes[b].compareTo(adjustedVotes[a]);
+                return (diff != 0) ? diff : Integer.compare(a, b);
+            });
+            for (int p = 0; p < partySeats.length; ++p) {
+                if (partyTally.isCounted(p)) {
+                    adjustedVotes[p] = computeAdjustedVotes(partyTally.get(p), new Decimal(partySeats[p]));
+                    heap.add(p);
+                }
+            }
+            while (filledSeats < election.getSeats()) {
+                final var topParty = heap.peek();
+                partySeats[topParty] += 1;
+                filledSeats += 1;
+                adjustedVotes[topParty] = computeAdjustedVotes(partyTally.get(topParty), new Decimal(partySeats[topParty]));
+                heap.update(topParty);
             }
-            return partySeats;
         }
 
-        private Counter<Party> computePartySeatsUsingHareQuotas(Counter<Party> partySeats)
+        private void computePartySeatsUsingHareQuotas(int[] partySeats,
+                                                      int filledSeats)
         {
-            if (!partySeats.isEmpty()) {
+            if (filledSeats > 0) {
                 throw new IllegalArgumentException("Hare quotas cannot be used with pre-assigned seats.");
             }
             final var partyQuota = Election.computeQuota(partyVotes.getTotal(), election.getSeats());
-            final var totalSeats = new Decimal(election.getSeats());
-            var partyVotes = this.partyVotes;
-            for (var e : partyVotes) {
-                var seats = e.getCount().div(partyQuota);
-                if (seats.isGreaterThan(ZERO)) {
-                    partySeats = partySeats.set(e.getKey(), seats);
-                    partyVotes = partyVotes.subtract(e.getKey(), seats.times(partyQuota));
-                }
+            final var remainders = new Decimal[parties.size()];
+            for (int p = 0; p < remainders.length; ++p) {
+                final var votes = partyTally.get(p);
+                final var seats = votes.div(partyQuota);
+                remainders[p] = votes.minus(seats.times(partyQuota));
+                partySeats[p] = seats.toInt();
+                filledSeats += partySeats[p];
             }
-            var remaining = totalSeats.minus(partySeats.getTotal()).toInt();
-            while (remaining > 0) {
-                final var topParty = findPartyWithHighestVotes(partyVotes);
-                partySeats = partySeats.inc(topParty);
-                partyVotes = partyVotes.set(topParty, ZERO);
-                remaining -= 1;
+            while (filledSeats < election.getSeats()) {
+                final var topParty = findPartyWithHighestVotes(remainders);
+                partySeats[topParty] += 1;
+                remainders[topParty] = ZERO;
+                filledSeats += 1;
             }
-            return partySeats;
         }
 
         private void assignPreElectedCandidates(JImmutableList<Candidate> preElected)
@@ -179,9 +214,9 @@ public class OpenListRunner
 
         private void assignSeatsToCandidatesFromPartyLists()
         {
-            for (var entry : partySeats) {
-                final var party = entry.getKey();
-                final var numberOfSeats = entry.getCount().toInt();
+            for (int p = 0; p < partySeats.length; ++p) {
+                final var party = parties.get(p);
+                final var numberOfSeats = partySeats[p];
                 for (var candidate : partyLists.getList(party)) {
                     if (filledSeatsForParty(party) < numberOfSeats) {
                         addSelected(candidate);
@@ -193,7 +228,7 @@ public class OpenListRunner
 
         private int numberOfSeatsForParty(Party party)
         {
-            return partySeats.get(party).toInt();
+            return partySeats[parties.ordinal(party)];
         }
 
         private int filledSeats()
@@ -254,32 +289,14 @@ public class OpenListRunner
             };
         }
 
-        private Party findPartyWithHighestAdjustedVotes(Counter<Party> partySeats)
+        private int findPartyWithHighestVotes(Decimal[] partyVotes)
         {
-            Party topParty = null;
+            int topParty = -1;
             Decimal topVotes = ZERO;
-            for (Counter.Entry<Party> entry : partyVotes) {
-                final Party party = entry.getKey();
-                final Decimal rawVotes = entry.getCount();
-                var adjustedVotes = computeAdjustedVotes(rawVotes, partySeats.get(party));
-                if (adjustedVotes.isGreaterThan(topVotes)) {
-                    topVotes = adjustedVotes;
-                    topParty = party;
-                }
-            }
-            return topParty;
-        }
-
-        private Party findPartyWithHighestVotes(Counter<Party> partyVotes)
-        {
-            Party topParty = null;
-            Decimal topVotes = ZERO;
-            for (Counter.Entry<Party> entry : partyVotes) {
-                final Party party = entry.getKey();
-                final Decimal rawVotes = entry.getCount();
-                if (rawVotes.isGreaterThan(topVotes)) {
-                    topVotes = rawVotes;
-                    topParty = party;
+            for (int p = 0; p < partyVotes.length; ++p) {
+                if (partyVotes[p].isGreaterThan(topVotes)) {
+                    topVotes = partyVotes[p];
+                    topParty = p;
                 }
             }
             return topParty;
@@ -327,12 +344,21 @@ public class OpenListRunner
                                                     JImmutableSet<Party> winningParties)
     {
         final var fraction = new Decimal("0.9");
+        final var candidates = ballots.getCandidateOrdinals();
+        final var isWinningCandidate = new boolean[candidates.size()];
+        for (int c = 0; c < isWinningCandidate.length; ++c) {
+            isWinningCandidate[c] = winningCandidates.contains(candidates.get(c));
+        }
+        final var parties = ballots.getPartyOrdinals();
+        final var isWinningParty = new boolean[parties.size()];
+        for (int p = 0; p < isWinningParty.length; ++p) {
+            isWinningParty[p] = winningParties.contains(parties.get(p));
+        }
         var sum = ZERO;
-        for (var e : ballots) {
-            final var ballot = e.getKey();
-            final var count = e.getCount();
-            final var candidate = winningCandidates.contains(ballot.first());
-            final var party = winningParties.contains(ballot.getParty());
+        for (int b = 0; b < ballots.size(); ++b) {
+            final var count = ballots.getCount(b);
+            final var candidate = isWinningCandidate[ballots.getChoice(b, 0)];
+            final var party = isWinningParty[ballots.getPartyOrdinal(b)];
             if (candidate && party) {
                 sum = sum.plus(count);
             } else if (candidate || party) {
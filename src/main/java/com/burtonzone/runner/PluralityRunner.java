@@ -3,8 +3,8 @@ package com.burtonzone.runner;
 import static com.burtonzone.common.Decimal.ZERO;
 import static com.burtonzone.election.CandidateVotes.SelectionType.Vote;
 
-import com.burtonzone.common.Counter;
 import com.burtonzone.common.Decimal;
+import com.burtonzone.common.Tally;
 import com.burtonzone.election.BallotBox;
 import com.burtonzone.election.Candidate;
 import com.burtonzone.election.CandidateVotes;
@@ -55,14 +55,16 @@ public class PluralityRunner
             case Limited -> (election.getSeats() + 1) / 2;
         };
         final var effectiveBallots = election.getBallots().toPrefixBallots(maxChoices);
-        var counter = new Counter<Candidate>();
-        for (var ballot : effectiveBallots) {
-            for (Candidate candidate : ballot.getKey().getCandidates()) {
-                var count = ballot.getCount();
-                counter = counter.add(candidate, count);
+        final var candidates = effectiveBallots.getCandidateOrdinals();
+        final var tally = new Tally(candidates.size());
+        for (int b = 0; b < effectiveBallots.size(); ++b) {
+            final var count = effectiveBallots.getCount(b);
+            for (int i = 0; i < effectiveBallots.getChoiceCount(b); ++i) {
+                tally.add(effectiveBallots.getChoice(b, i), count);
             }
         }
-        final var votes = counter
+        final var votes = tally
+            .toCounter(candidates)
             .getSortedList(election.getTieBreaker())
             .slice(0, election.getSeats())
             .transform(cv -> new CandidateVotes(cv, Vote));
@@ -80,13 +82,17 @@ public class PluralityRunner
     private Decimal computeEffectiveVoteScore(BallotBox ballots,
                                               JImmutableSet<Candidate> elected)
     {
+        final var candidates = ballots.getCandidateOrdinals();
+        final var isElected = new boolean[candidates.size()];
+        for (int c = 0; c < isElected.length; ++c) {
+            isElected[c] = elected.contains(candidates.get(c));
+        }
         var sum = ZERO;
-        for (var e : ballots) {
-            final var ballot = e.getKey();
-            final var count = e.getCount();
-            final var increment = count.divide(ballot.size());
-            for (Candidate candidate : ballot.getCandidates()) {
-                if (elected.contains(candidate)) {
+        for (int b = 0; b < ballots.size(); ++b) {
+            final var size = ballots.getChoiceCount(b);
+            final var increment = ballots.getCount(b).divide(size);
+            for (int i = 0; i < size; ++i) {
+                if (isElected[ballots.getChoice(b, i)]) {
                     sum = sum.plus(increment);
                 }
             }
@@ -7,13 +7,20 @@ import static org.javimmutable.collections.util.JImmutables.*;
 
 import com.burtonzone.common.Counter;
 import com.burtonzone.common.Decimal;
+import com.burtonzone.common.IndexedHeap;
+import com.burtonzone.common.Ordinals;
+import com.burtonzone.common.Tally;
 import com.burtonzone.election.BallotBox;
+import com.burtonzone.election.BallotTrie;
 import com.burtonzone.election.Candidate;
 import com.burtonzone.election.CandidateVotes;
 import com.burtonzone.election.Election;
 import com.burtonzone.election.ElectionResult;
 import com.burtonzone.election.ElectionRunner;
 import com.burtonzone.election.Party;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Function;
 import lombok.Data;
 import lombok.Getter;
 import org.javimmutable.collections.JImmutableList;
@@ -22,10 +29,44 @@ import org.javimmutable.collections.JImmutableSet;
 public class StvRunner
     implements ElectionRunner
 {
+    private final Function<Election, Worksheet> worksheetFactory;
+
+    /**
+     * Creates a runner that tracks every ballot in the election's {@link BallotBox} individually.
+     */
+    public StvRunner()
+    {
+        this(ListWorksheet::new);
+    }
+
+    private StvRunner(Function<Election, Worksheet> worksheetFactory)
+    {
+        this.worksheetFactory = worksheetFactory;
+    }
+
+    /**
+     * Creates a runner that counts using the {@link BallotTrie} of the election's {@link BallotBox}.
+     * Elects exactly the same candidates as the default runner.  Adding subtree weights sums the
+     * ballot counts in a different order, which only gives identical totals when addition is
+     * exact, so in {@link Decimal.Mode#FloatingPoint} this counts the same way as the default runner.
+     */
+    public static StvRunner trie()
+    {
+        return new StvRunner(StvRunner::createTrieWorksheet);
+    }
+
+    private static Worksheet createTrieWorksheet(Election election)
+    {
+        if (Decimal.getMode() == Decimal.Mode.FloatingPoint) {
+            return new ListWorksheet(election);
+        }
+        return new TrieWorksheet(election);
+    }
+
     @Override
     public Result runElection(Election election)
     {
-        final var worksheet = new Worksheet(election);
+        final var worksheet = worksheetFactory.apply(election);
         while (worksheet.remaining > 0) {
             worksheet.nextRound();
         }
@@ -54,48 +95,111 @@ public class StvRunner
     @Data
     public static class Round
     {
-        private final BallotBox ballots;
         private final CandidateVotes winner;
         private final CandidateVotes loser;
     }
 
-    private static class Worksheet
+    /**
+     * Keeps a running total of first choice votes for every candidate.  Ballots only ever
+     * move away from removed candidates so the total of a remaining candidate never needs
+     * to be reduced.  Subclasses track the first remaining choice of every ballot and call
+     * {@link #addVotes} as ballots are transferred.
+     * <p>
+     * Hopeful candidates are kept in two {@link IndexedHeap}s using the same order as
+     * {@link CandidateVotes#voteOrder}: one with the candidate with the most votes on top
+     * and one with the candidate with the fewest votes on top.  A candidate is re-positioned
+     * in both heaps whenever votes are transferred to it instead of re-sorting every round.
+     */
+    private abstract static class Worksheet
     {
-        private final Election election;
+        protected final Election election;
+        protected final BallotBox ballots;
+        protected final Ordinals<Candidate> candidates;
+        protected final boolean[] removed;
+        private final Tally totals;
+        private final int[] tieBreakerRanks;
+        private final IndexedHeap leaders;
+        private final IndexedHeap trailers;
         private JImmutableList<Round> rounds;
-        private BallotBox ballots;
         private int remaining;
 
         private Worksheet(Election election)
         {
             this.election = election;
-            rounds = list();
             ballots = election.getBallots();
+            candidates = election.getCandidateOrdinals();
+            removed = new boolean[candidates.size()];
+            totals = new Tally(candidates.size());
+            tieBreakerRanks = computeTieBreakerRanks();
+            leaders = new IndexedHeap(candidates.size(), this::compareVotes);
+            trailers = new IndexedHeap(candidates.size(), (a, b) -> compareVotes(b, a));
+            rounds = list();
             remaining = election.getSeats();
         }
 
+        /**
+         * Moves every ballot that ranks the candidate first to its next remaining choice.
+         * The candidate has already been marked as removed.  The count of each ballot moved
+         * is multiplied by transferWeight and the ballot is dropped if it becomes zero or if
+         * no choices remain.
+         */
+        protected abstract void transfer(int candidate,
+                                         Decimal transferWeight);
+
+        protected void addVotes(int candidate,
+                                Decimal votes)
+        {
+            totals.add(candidate, votes);
+            if (totals.isCounted(candidate)) {
+                leaders.update(candidate);
+                trailers.update(candidate);
+            }
+        }
+
         private void nextRound()
         {
-            final var votes = computeVotes();
-            if (votes.size() < remaining) {
+            final var hopefuls = leaders.size();
+            if (hopefuls < remaining) {
                 throw new IllegalStateException("not enough candidates remaining");
             }
-            final var winner = votes.get(0);
+            final var winner = candidateVotes(leaders.peek());
             if (winner.getVotes().isGreaterOrEqualTo(election.getQuota())) {
                 recordQuotaWinner(winner);
-            } else if (votes.size() == remaining) {
-                recordRemainderWinners(votes);
+            } else if (hopefuls == remaining) {
+                recordRemainderWinners();
             } else {
-                final var loser = votes.get(votes.size() - 1);
+                final var loser = candidateVotes(trailers.peek());
                 recordLoser(loser);
             }
         }
 
-        private JImmutableList<CandidateVotes> computeVotes()
+        private CandidateVotes candidateVotes(int candidate)
+        {
+            return new CandidateVotes(candidates.get(candidate), totals.get(candidate), Vote);
+        }
+
+        /**
+         * Orders candidates with the most votes first and uses the election's tie breaker
+         * followed by name to break ties exactly as {@link CandidateVotes#voteOrder} does.
+         */
+        private int compareVotes(int a,
+                                 int b)
+        {
+            final var diff = totals.compare(b, a);
+            return diff != 0 ? diff : Integer.compare(tieBreakerRanks[a], tieBreakerRanks[b]);
+        }
+
+        private int[] computeTieBreakerRanks()
         {
-            return ballots.getFirstChoiceCandidateVotes()
-                .getSortedList(election.getTieBreaker())
-                .transform(cv -> new CandidateVotes(cv, Vote));
+            final var order = election.getTieBreaker().thenComparing(Comparator.naturalOrder());
+            final var sorted = candidates.stream()
+                .sorted(order)
+                .collect(listCollector());
+            final var answer = new int[candidates.size()];
+            for (int rank = 0; rank < sorted.size(); ++rank) {
+                answer[candidates.ordinal(sorted.get(rank))] = rank;
+            }
+            return answer;
         }
 
         private JImmutableList<CandidateVotes> computeWinnersList()
@@ -111,36 +215,55 @@ public class StvRunner
             final var overVote = winner.getVotes().minus(election.getQuota());
             final var transferWeight = overVote.divide(winner.getVotes());
             final var candidate = new CandidateVotes(winner.getCandidate(), election.getQuota(), Vote);
-            rounds = rounds.insertLast(new Round(ballots, candidate, null));
-            ballots = ballots.removeAndTransfer(winner.getCandidate(), transferWeight);
+            rounds = rounds.insertLast(new Round(candidate, null));
+            removeAndTransfer(winner.getCandidate(), transferWeight);
             remaining -= 1;
         }
 
-        private void recordRemainderWinners(JImmutableList<CandidateVotes> winners)
+        /**
+         * Transfers with zero weight never change the totals of other candidates so
+         * the remaining candidates are elected in their current order.
+         */
+        private void recordRemainderWinners()
         {
-            for (CandidateVotes winner : winners) {
-                rounds = rounds.insertLast(new Round(ballots, winner, null));
-                ballots = ballots.removeAndTransfer(winner.getCandidate(), ZERO);
+            while (remaining > 0) {
+                final var winner = candidateVotes(leaders.peek());
+                rounds = rounds.insertLast(new Round(winner, null));
+                removeAndTransfer(winner.getCandidate(), ZERO);
                 remaining -= 1;
             }
         }
 
         private void recordLoser(CandidateVotes loser)
         {
-            rounds = rounds.insertLast(new Round(ballots, null, loser));
-            ballots = ballots.removeAndTransfer(loser.getCandidate(), ONE);
+            rounds = rounds.insertLast(new Round(null, loser));
+            removeAndTransfer(loser.getCandidate(), ONE);
+        }
+
+        private void removeAndTransfer(Candidate candidate,
+                                       Decimal transferWeight)
+        {
+            final var ordinal = candidates.ordinal(candidate);
+            removed[ordinal] = true;
+            leaders.remove(ordinal);
+            trailers.remove(ordinal);
+            transfer(ordinal, transferWeight);
         }
 
         private Decimal computeEffectiveVoteScore(JImmutableSet<Candidate> elected)
         {
+            final var isElected = new boolean[candidates.size()];
+            for (Candidate candidate : elected) {
+                isElected[candidates.ordinal(candidate)] = true;
+            }
             var sum = ZERO;
-            for (var e : election.getBallots()) {
-                final var ballot = e.getKey();
-                final var count = e.getCount();
-                final var drop = ONE.divide(ballot.size());
+            for (int b = 0; b < ballots.size(); ++b) {
+                final var count = ballots.getCount(b);
+                final var choiceCount = ballots.getChoiceCount(b);
+                final var drop = ONE.divide(choiceCount);
                 var fraction = ONE;
-                for (Candidate candidate : ballot.getCandidates()) {
-                    if (elected.contains(candidate)) {
+                for (int i = 0; i < choiceCount; ++i) {
+                    if (isElected[ballots.getChoice(b, i)]) {
                         sum = sum.plus(count.times(fraction));
                         break;
                     }
@@ -166,4 +289,149 @@ public class StvRunner
                               rounds);
         }
     }
+
+    /**
+     * Tracks the index of the first remaining choice and the current count of every ballot.
+     * Removing a candidate only visits the ballots in the box's posting list for that
+     * candidate so the cost of a round is proportional to the number of affected ballots
+     * rather than the size of the box.
+     */
+    private static class ListWorksheet
+        extends Worksheet
+    {
+        private final int[] firsts;
+        private final Decimal[] counts;
+
+        private ListWorksheet(Election election)
+        {
+            super(election);
+            firsts = new int[ballots.size()];
+            counts = new Decimal[ballots.size()];
+            for (int b = 0; b < counts.length; ++b) {
+                counts[b] = ballots.getCount(b);
+                addVotes(ballots.getChoice(b, 0), counts[b]);
+            }
+        }
+
+        @Override
+        protected void transfer(int candidate,
+                                Decimal transferWeight)
+        {
+            for (int b : ballots.getBallotsRanking(candidate)) {
+                if (counts[b] == null || ballots.getChoice(b, firsts[b]) != candidate) {
+                    continue;
+                }
+                final var transferCount = counts[b].times(transferWeight);
+                final var choiceCount = ballots.getChoiceCount(b);
+                var first = firsts[b];
+                while (first < choiceCount && removed[ballots.getChoice(b, first)]) {
+                    first += 1;
+                }
+                if (transferCount.isZero() || first == choiceCount) {
+                    counts[b] = null;
+                } else {
+                    counts[b] = transferCount;
+                    firsts[b] = first;
+                    addVotes(ballots.getChoice(b, first), transferCount);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts using the {@link BallotTrie} of the election's ballots.  Every candidate has a
+     * frontier of trie nodes whose subtrees contain exactly the ballots that currently rank
+     * that candidate first.  Eliminating a candidate moves each of its frontier nodes' child
+     * subtrees to the frontier of their candidates at once by adding the subtree weight.
+     * <p>
+     * A surplus transfer has to multiply the count of each ballot in the winner's subtrees
+     * individually and recompute the subtree weights.  Multiplying the subtree weight instead
+     * would round differently and could change the winners.
+     */
+    private static class TrieWorksheet
+        extends Worksheet
+    {
+        private final BallotTrie trie;
+        private final Decimal[] counts;
+        private final Decimal[] weights;
+        private final int[] frontiers;
+        private final int[] nextInFrontier;
+
+        private TrieWorksheet(Election election)
+        {
+            super(election);
+            trie = ballots.getTrie();
+            counts = new Decimal[ballots.size()];
+            for (int b = 0; b < counts.length; ++b) {
+                counts[b] = ballots.getCount(b);
+            }
+            weights = new Decimal[trie.size()];
+            for (int node = 0; node < weights.length; ++node) {
+                weights[node] = trie.getWeight(node);
+            }
+            frontiers = new int[candidates.size()];
+            Arrays.fill(frontiers, BallotTrie.NONE);
+            nextInFrontier = new int[trie.size()];
+            enterChildren(BallotTrie.ROOT);
+        }
+
+        @Override
+        protected void transfer(int candidate,
+                                Decimal transferWeight)
+        {
+            var node = frontiers[candidate];
+            frontiers[candidate] = BallotTrie.NONE;
+            if (transferWeight.isZero()) {
+                return;
+            }
+            while (node != BallotTrie.NONE) {
+                if (!transferWeight.equals(ONE)) {
+                    scale(node, transferWeight);
+                }
+                enterChildren(node);
+                node = nextInFrontier[node];
+            }
+        }
+
+        private void enterChildren(int node)
+        {
+            for (int child = trie.getFirstChild(node); child != BallotTrie.NONE; child = trie.getNextSibling(child)) {
+                enterFrontier(child);
+            }
+        }
+
+        private void enterFrontier(int node)
+        {
+            final var candidate = trie.getCandidate(node);
+            if (removed[candidate]) {
+                enterChildren(node);
+            } else {
+                nextInFrontier[node] = frontiers[candidate];
+                frontiers[candidate] = node;
+                addVotes(candidate, weights[node]);
+            }
+        }
+
+        private Decimal scale(int node,
+                              Decimal transferWeight)
+        {
+            var weight = ZERO;
+            for (int b = trie.getFirstBallot(node); b != BallotTrie.NONE; b = trie.getNextBallot(b)) {
+                if (counts[b] != null) {
+                    final var count = counts[b].times(transferWeight);
+                    if (count.isZero()) {
+                        counts[b] = null;
+                    } else {
+                        counts[b] = count;
+                        weight = weight.plus(count);
+                    }
+                }
+            }
+            for (int child = trie.getFirstChild(node); child != BallotTrie.NONE; child = trie.getNextSibling(child)) {
+                weight = weight.plus(scale(child, transferWeight));
+            }
+            weights[node] = weight;
+            return weight;
+        }
+    }
 }
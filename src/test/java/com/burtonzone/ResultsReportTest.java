@@ -0,0 +1,49 @@
+package com.burtonzone;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+import static org.junit.Assert.*;
+
+import com.burtonzone.common.Decimal;
+import com.burtonzone.election.Candidate;
+import com.burtonzone.election.Election;
+import com.burtonzone.election.LinearPosition;
+import com.burtonzone.election.Party;
+import com.burtonzone.runner.StvRunner;
+import org.junit.Test;
+
+public class ResultsReportTest
+{
+    private final Party P = new Party("P", "P", new LinearPosition(10));
+    private final Candidate A = new Candidate(P, "A");
+    private final Candidate B = new Candidate(P, "B");
+    private final Candidate C = new Candidate(P, "C");
+
+    @Test
+    public void averageNumberOfChoicesCountsBallotsPerElectionTest()
+    {
+        final var runner = new StvRunner();
+        final var first = runner.runElection(Election.builder()
+                                                 .seats(1)
+                                                 .ballot(3, A, B)
+                                                 .ballot(2, B, A)
+                                                 .ballot(1, C)
+                                                 .build());
+        final var second = runner.runElection(Election.builder()
+                                                  .seats(1)
+                                                  .ballot(3, A, B)
+                                                  .ballot(1, C)
+                                                  .build());
+        assertEquals(new Decimal("1.66666667"), ResultsReport.of(first).getAverageNumberOfChoices());
+        assertEquals(new Decimal("1.5"), ResultsReport.of(second).getAverageNumberOfChoices());
+
+        // the A,B and C ballots appear in both elections and are counted in each: 8 choices on 5 ballots
+        final var report = ResultsReport.of(list(first, second));
+        assertEquals(5, report.getNumberOfBallots());
+        assertEquals(8, report.getNumberOfChoices());
+        assertEquals(new Decimal("1.6"), report.getAverageNumberOfChoices());
+
+        final var collected = list(first, second).stream().collect(ResultsReport.collector());
+        assertEquals(5, collected.getNumberOfBallots());
+        assertEquals(8, collected.getNumberOfChoices());
+    }
+}
@@ -0,0 +1,26 @@
+package com.burtonzone.common;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class CostSchedulerTest
+{
+    @Test
+    public void longestFirstTest()
+    {
+        final var items = list(3, 10, 1, 7, 10, 2);
+        final var visited = CostScheduler.longestFirst(items, i -> i).collect(listCollector());
+        assertEquals(list(10, 10, 7, 3, 2, 1), visited);
+        assertEquals(list(), CostScheduler.longestFirst(list(), i -> 0L).collect(listCollector()));
+    }
+
+    @Test
+    public void mapKeepsOrderTest()
+    {
+        final var items = list("ccc", "a", "bbbbb", "dd");
+        assertEquals(list(3, 1, 5, 2), CostScheduler.map(items, String::length, String::length));
+        assertEquals(list(), CostScheduler.map(list(), s -> 0L, s -> s));
+    }
+}
@@ -2,10 +2,46 @@ package com.burtonzone.common;
 
 import static org.junit.Assert.*;
 
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
 
+@RunWith(Parameterized.class)
 public class DecimalTest
 {
+    private final Decimal.Mode mode;
+    private Decimal.Mode savedMode;
+
+    public DecimalTest(Decimal.Mode mode)
+    {
+        this.mode = mode;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> modes()
+    {
+        return Arrays.asList(new Object[][]{{Decimal.Mode.Exact}, {Decimal.Mode.FixedPoint}});
+    }
+
+    @Before
+    public void setUp()
+    {
+        savedMode = Decimal.getMode();
+        Decimal.setMode(mode);
+    }
+
+    @After
+    public void tearDown()
+    {
+        Decimal.setMode(savedMode);
+    }
+
     @Test
     public void zeroTest()
     {
@@ -26,6 +62,9 @@ public class DecimalTest
 
         assertFalse(new Decimal("0.00000006").isZero());
         assertFalse(new Decimal("-0.00000006").isZero());
+
+        assertTrue(new Decimal("0.1").minus(new Decimal("0.09999999")).isZero());
+        assertFalse(new Decimal("0.1").minus(new Decimal("0.09999990")).isZero());
     }
 
     @Test
@@ -37,4 +76,106 @@ public class DecimalTest
         assertTrue(new Decimal("-0.00000001").isNegOrZero());
         assertTrue(new Decimal("0.00000001").isNegOrZero());
     }
+
+    @Test
+    public void roundingTest()
+    {
+        assertEquals(new Decimal("0.12345679"), new Decimal("0.123456785"));
+        assertEquals(new Decimal("-0.12345679"), new Decimal("-0.123456785"));
+
+        assertEquals(new Decimal("0.33333333"), Decimal.ONE.divide(3));
+        assertEquals(new Decimal("0.66666667"), Decimal.TWO.divide(3));
+        assertEquals(new Decimal("-0.66666667"), new Decimal(-2).divide(3));
+        assertEquals(new Decimal("0.00000001"), new Decimal("0.00000001").divide(new Decimal("0.66666667")));
+        assertEquals(new Decimal("1234.56789012"), new Decimal("1234567.89012").divide(1000));
+
+        assertEquals(new Decimal("0.00000001"), new Decimal("0.0001").times(new Decimal("0.00005")));
+        assertEquals(new Decimal("0.00000000"), new Decimal("0.0001").times(new Decimal("0.00004999")));
+        assertEquals(new Decimal("-0.00000001"), new Decimal("-0.0001").times(new Decimal("0.00005")));
+        assertEquals(new Decimal("2.12635510"), new Decimal("3.14159265").times(new Decimal("0.67683985")));
+
+        assertEquals(new Decimal(3), new Decimal("2.5").round());
+        assertEquals(new Decimal(-3), new Decimal("-2.5").round());
+        assertEquals(new Decimal(2), new Decimal("2.49999999").round());
+        assertEquals(new Decimal(3), new Decimal("2.00000001").roundUp());
+        assertEquals(new Decimal(-3), new Decimal("-2.00000001").roundUp());
+        assertEquals(new Decimal(2), new Decimal("2.99999999").roundDown());
+        assertEquals(new Decimal(-2), new Decimal("-2.99999999").roundDown());
+        assertEquals(new Decimal(3), new Decimal(10).div(new Decimal(3)));
+        assertEquals(new Decimal(1), new Decimal(10).mod(new Decimal(3)));
+        assertEquals(3, new Decimal("3.99999999").toInt());
+        assertEquals(-3, new Decimal("-3.99999999").toInt());
+
+        final var justUnderHalf = new Decimal("5000000000000000000000").minus(new Decimal("0.00000001"));
+        assertEquals(Decimal.ZERO, justUnderHalf.divide(new Decimal("1000000000000000000000000000000")));
+    }
+
+    @Test
+    public void floatingPointRoundingTest()
+    {
+        Decimal.setMode(Decimal.Mode.FloatingPoint);
+        final var almostThree = Decimal.fromDouble(2.9999999999999996);
+        assertEquals(3, almostThree.toInt());
+        assertEquals(new Decimal(3), almostThree.roundDown());
+        assertEquals(new Decimal(3), almostThree.roundUp());
+        assertEquals(new Decimal(3), almostThree.round());
+        assertEquals(new Decimal(-3), Decimal.fromDouble(-2.9999999999999996).roundDown());
+        assertEquals(new Decimal(3), Decimal.fromDouble(2.4).roundUp());
+        assertEquals(new Decimal(2), Decimal.fromDouble(2.4).roundDown());
+        assertEquals(new Decimal(2), Decimal.fromDouble(2.499999994).round());
+    }
+
+    @Test
+    public void floatingPointCompareMatchesEqualsTest()
+    {
+        Decimal.setMode(Decimal.Mode.FloatingPoint);
+        final var sum = Decimal.fromDouble(0.1 + 0.2);
+        final var third = Decimal.fromDouble(0.3);
+        assertEquals(third, sum);
+        assertEquals(third.hashCode(), sum.hashCode());
+        assertEquals(0, sum.compareTo(third));
+        assertEquals(0, third.compareTo(sum));
+        assertEquals(0, sum.compareTo(new Decimal("0.3")));
+        assertEquals(new Decimal("0.3").hashCode(), sum.hashCode());
+
+        final var next = Decimal.fromDouble(0.30000001);
+        assertNotEquals(third, next);
+        assertTrue(third.compareTo(next) < 0);
+        assertTrue(next.compareTo(third) > 0);
+        final var random = new Random(17);
+        for (int i = 0; i < 10_000; ++i) {
+            final var value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12));
+            final var real = Decimal.fromDouble(value);
+            final var rounded = new Decimal(real.toBigDecimal());
+            assertEquals(rounded, real);
+            assertEquals(rounded.hashCode(), real.hashCode());
+            assertEquals(0, real.compareTo(rounded));
+        }
+
+        final var large = Decimal.fromDouble(1e15 + 0.25);
+        assertEquals(0, large.compareTo(new Decimal("1000000000000000.25")));
+        assertEquals(new Decimal("1000000000000000.25"), large);
+
+        final var tally = new Tally(2);
+        tally.add(0, Decimal.fromDouble(0.1));
+        tally.add(0, Decimal.fromDouble(0.2));
+        tally.add(1, third);
+        assertEquals(0, tally.compare(0, 1));
+    }
+
+    @Test
+    public void overflowTest()
+    {
+        final var large = new Decimal("90000000000");
+        final var sum = large.plus(large);
+        assertEquals(new Decimal(new BigDecimal("180000000000")), sum);
+        assertEquals(large, sum.minus(large));
+        assertEquals(new Decimal(new BigDecimal("8100000000000000000000")), large.times(large));
+        assertEquals(new Decimal(new BigDecimal("9")), large.times(large).divide(large.times(large.divide(9))));
+        assertEquals(new Decimal(new BigDecimal("30000000000")), large.divide(3));
+        assertEquals(new Decimal(new BigDecimal("-180000000000")), sum.times(new Decimal(-1)));
+        assertTrue(sum.isGreaterThan(large));
+        assertFalse(sum.isNegOrZero());
+        assertFalse(sum.isZero());
+    }
 }
@@ -0,0 +1,61 @@
+package com.burtonzone.common;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class IndexedHeapTest
+{
+    @Test
+    public void randomUpdatesTest()
+    {
+        final var random = new Random(42);
+        final var priorities = new int[50];
+        final var heap = new IndexedHeap(priorities.length, (a, b) -> Integer.compare(priorities[a], priorities[b]));
+        for (int i = 0; i < priorities.length; ++i) {
+            priorities[i] = random.nextInt(1000);
+            heap.add(i);
+        }
+        for (int i = 0; i < 500; ++i) {
+            final var ordinal = random.nextInt(priorities.length);
+            if (heap.contains(ordinal) && random.nextInt(10) == 0) {
+                heap.remove(ordinal);
+            } else {
+                priorities[ordinal] = random.nextInt(1000);
+                heap.update(ordinal);
+            }
+            assertEquals(minimum(priorities, heap), priorities[heap.peek()]);
+        }
+    }
+
+    @Test
+    public void removeTest()
+    {
+        final var heap = new IndexedHeap(3, Integer::compare);
+        heap.add(2);
+        heap.add(0);
+        heap.add(1);
+        assertEquals(0, heap.peek());
+        heap.remove(0);
+        assertFalse(heap.contains(0));
+        assertEquals(1, heap.peek());
+        heap.remove(1);
+        heap.remove(1);
+        assertEquals(2, heap.peek());
+        heap.remove(2);
+        assertTrue(heap.isEmpty());
+    }
+
+    private static int minimum(int[] priorities,
+                               IndexedHeap heap)
+    {
+        var answer = Integer.MAX_VALUE;
+        for (int i = 0; i < priorities.length; ++i) {
+            if (heap.contains(i)) {
+                answer = Math.min(answer, priorities[i]);
+            }
+        }
+        return answer;
+    }
+}
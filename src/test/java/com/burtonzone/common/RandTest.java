@@ -0,0 +1,138 @@
+package com.burtonzone.common;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+public class RandTest
+{
+    @Test
+    public void splitTest()
+    {
+        final var rand = new Rand(11);
+        final var expected = draw(rand.split(3).split(7));
+        for (int i = 0; i < 100; ++i) {
+            rand.nextInt(0, 100);
+        }
+        assertArrayEquals(expected, draw(rand.split(3).split(7)));
+        assertArrayEquals(expected, draw(new Rand(11).split(3).split(7)));
+        assertFalse(Arrays.equals(expected, draw(rand.split(7).split(3))));
+        assertFalse(Arrays.equals(expected, draw(rand.split(3).split(8))));
+    }
+
+    @Test
+    public void cumulativeCountsTest()
+    {
+        verifyCumulativeCounts(4, 2);
+        verifyCumulativeCounts(5, 3);
+        verifyCumulativeCounts(7, 4);
+        assertNull(Rand.cumulativeCounts(100_000, 4));
+        final var rand = new Rand(11);
+        for (int i = 0; i < 100; ++i) {
+            final var value = rand.nextInt(-50_000, 49_999, 4);
+            assertTrue(value >= -50_000 && value <= 49_999);
+        }
+    }
+
+    /**
+     * Two sample chi-square test comparing the table sampler with averaging bias values.
+     * The seeds are fixed so the test is repeatable.  Limits are the 0.001 critical values.
+     */
+    @Test
+    public void distributionTest()
+    {
+        verifyDistribution(-45, 45, 3, 137.21);
+        verifyDistribution(35, 65, 4, 59.70);
+        verifyDistribution(0, 5, 2, 20.52);
+    }
+
+    @Test
+    public void binomialTest()
+    {
+        final var rand = new Rand(11);
+        assertEquals(0, rand.nextBinomial(100, 0));
+        assertEquals(100, rand.nextBinomial(100, 1));
+        verifyBinomialMean(rand, 50, 0.1);
+        verifyBinomialMean(rand, 1000, 0.75);
+        verifyBinomialMean(rand, 1_000_000, 0.3);
+    }
+
+    private static void verifyBinomialMean(Rand rand,
+                                           int trials,
+                                           double probability)
+    {
+        final var samples = 2_000;
+        var sum = 0.0;
+        for (int i = 0; i < samples; ++i) {
+            final var value = rand.nextBinomial(trials, probability);
+            assertTrue(value >= 0 && value <= trials);
+            sum += value;
+        }
+        // five standard errors of the sample mean
+        final var tolerance = 5 * Math.sqrt(trials * probability * (1 - probability) / samples);
+        assertEquals(trials * probability, sum / samples, tolerance);
+    }
+
+    private static void verifyCumulativeCounts(int range,
+                                               int bias)
+    {
+        final var expected = new long[range];
+        final var values = new int[bias];
+        var done = false;
+        while (!done) {
+            var sum = 0;
+            for (int value : values) {
+                sum += value;
+            }
+            expected[(sum + (bias / 2)) / bias] += 1;
+            done = true;
+            for (int i = 0; i < bias && done; ++i) {
+                values[i] += 1;
+                if (values[i] == range) {
+                    values[i] = 0;
+                } else {
+                    done = false;
+                }
+            }
+        }
+        for (int i = 1; i < range; ++i) {
+            expected[i] += expected[i - 1];
+        }
+        assertArrayEquals(expected, Rand.cumulativeCounts(range, bias));
+    }
+
+    private static void verifyDistribution(int min,
+                                           int max,
+                                           int bias,
+                                           double limit)
+    {
+        final var samples = 200_000;
+        final var fast = new Rand(11);
+        final var slow = new Rand(12);
+        final var fastCounts = new long[max - min + 1];
+        final var slowCounts = new long[max - min + 1];
+        for (int i = 0; i < samples; ++i) {
+            fastCounts[fast.nextInt(min, max, bias) - min] += 1;
+            slowCounts[slow.averagedInt(min, max, bias) - min] += 1;
+        }
+        var chiSquare = 0.0;
+        for (int i = 0; i < fastCounts.length; ++i) {
+            final var total = fastCounts[i] + slowCounts[i];
+            if (total > 0) {
+                final var diff = fastCounts[i] - slowCounts[i];
+                chiSquare += (double)(diff * diff) / total;
+            }
+        }
+        assertTrue("chi-square " + chiSquare, chiSquare < limit);
+    }
+
+    private static int[] draw(Rand rand)
+    {
+        final var answer = new int[20];
+        for (int i = 0; i < answer.length; ++i) {
+            answer[i] = rand.nextInt(0, 1000);
+        }
+        return answer;
+    }
+}
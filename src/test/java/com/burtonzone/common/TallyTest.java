@@ -0,0 +1,58 @@
+package com.burtonzone.common;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import org.junit.Test;
+
+public class TallyTest
+{
+    @Test
+    public void countedTest()
+    {
+        final var tally = new Tally(3);
+        tally.add(0, new Decimal("1.5"));
+        tally.add(0, new Decimal("0.25"));
+        tally.add(1, Decimal.ZERO);
+        tally.add(2, new Decimal("-1"));
+        assertTrue(tally.isCounted(0));
+        assertFalse(tally.isCounted(1));
+        assertFalse(tally.isCounted(2));
+        assertEquals(new Decimal("1.75"), tally.get(0));
+        assertEquals(Decimal.ZERO, tally.get(1));
+        assertEquals(new Decimal("1.75"), tally.getTotal());
+
+        tally.clear();
+        assertFalse(tally.isCounted(0));
+        assertEquals(Decimal.ZERO, tally.get(0));
+    }
+
+    @Test
+    public void overflowTest()
+    {
+        final var large = new Decimal("50000000000");
+        final var tally = new Tally(1);
+        tally.add(0, large);
+        tally.add(0, large);
+        tally.add(0, Decimal.ONE);
+        assertEquals(new Decimal(new BigDecimal("100000000001")), tally.get(0));
+    }
+
+    @Test
+    public void toCounterTest()
+    {
+        final var ordinals = Ordinals.<String>builder()
+            .add("a")
+            .add("b")
+            .add("a")
+            .build();
+        assertEquals(2, ordinals.size());
+        assertEquals(1, ordinals.ordinal("b"));
+
+        final var tally = new Tally(ordinals.size());
+        tally.add(ordinals.ordinal("b"), Decimal.TWO);
+        final var counter = tally.toCounter(ordinals);
+        assertEquals(1, counter.size());
+        assertEquals(Decimal.TWO, counter.get("b"));
+    }
+}
@@ -0,0 +1,107 @@
+package com.burtonzone.common;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class WorkPoolTest
+{
+    @Test
+    public void parallelStreamsStayInPoolTest()
+    {
+        try (var workPool = new WorkPool(3)) {
+            assertEquals(3, workPool.getParallelism());
+            final long outsideThreads = workPool.invoke(() -> {
+                final var pool = poolOf(Thread.currentThread());
+                assertNotNull(pool);
+                assertNotSame(ForkJoinPool.commonPool(), pool);
+                return IntStream.range(0, 1000)
+                    .parallel()
+                    .filter(i -> poolOf(Thread.currentThread()) != pool)
+                    .count();
+            });
+            assertEquals(0L, outsideThreads);
+            assertEquals(Integer.valueOf(6), workPool.supplyAsync(() -> 2 * 3).join());
+        }
+    }
+
+    @Test
+    public void defaultParallelismTest()
+    {
+        try (var workPool = new WorkPool(0)) {
+            assertEquals(Runtime.getRuntime().availableProcessors(), workPool.getParallelism());
+        }
+    }
+
+    @Test
+    public void statsTest()
+        throws Exception
+    {
+        try (var workPool = new WorkPool(1)) {
+            assertEquals(new WorkPool.Stats(1, 0, 0, 0, 0), workPool.getStats());
+            final var started = new CountDownLatch(1);
+            final var release = new CountDownLatch(1);
+            final var first = workPool.supplyAsync(() -> {
+                started.countDown();
+                await(release);
+                return 1;
+            });
+            started.await();
+            final var second = workPool.supplyAsync(() -> 2);
+            final var stats = workPool.getStats();
+            assertEquals(1, stats.getParallelism());
+            assertEquals(1, stats.getActiveThreads());
+            assertEquals(1, stats.getQueuedSubmissions());
+            assertEquals(0L, stats.getQueuedTasks());
+            release.countDown();
+            assertEquals(Integer.valueOf(3), first.thenCombine(second, Integer::sum).join());
+            assertEquals(0, workPool.getStats().getQueuedSubmissions());
+            assertTrue(workPool.getStats().getSteals() >= 0);
+        }
+    }
+
+    @Test
+    public void sequentialTest()
+    {
+        final var workPool = WorkPool.Sequential;
+        assertFalse(workPool.isParallel());
+        final var caller = Thread.currentThread();
+        assertSame(caller, workPool.invoke(Thread::currentThread));
+        assertSame(caller, workPool.supplyAsync(Thread::currentThread).join());
+        assertEquals(new WorkPool.Stats(1, 0, 0, 0, 0), workPool.getStats());
+    }
+
+    @Test
+    public void suppliedPoolTest()
+    {
+        final var pool = new ForkJoinPool(2);
+        try {
+            try (var workPool = new WorkPool(pool)) {
+                assertTrue(workPool.isParallel());
+                assertEquals(2, workPool.getParallelism());
+                assertSame(pool, workPool.invoke(() -> poolOf(Thread.currentThread())));
+            }
+            assertFalse(pool.isShutdown());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch)
+    {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private static ForkJoinPool poolOf(Thread thread)
+    {
+        return (thread instanceof ForkJoinWorkerThread) ? ((ForkJoinWorkerThread)thread).getPool() : null;
+    }
+}
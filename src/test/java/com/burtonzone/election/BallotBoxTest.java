@@ -0,0 +1,201 @@
+package com.burtonzone.election;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+import static org.junit.Assert.*;
+
+import com.burtonzone.common.Decimal;
+import java.util.ArrayList;
+import org.javimmutable.collections.JImmutableList;
+import org.junit.Test;
+
+public class BallotBoxTest
+{
+    private final Party P = new Party("P", "P", new LinearPosition(10));
+    private final Party Q = new Party("Q", "Q", new LinearPosition(20));
+    private final Candidate A = new Candidate(P, "A");
+    private final Candidate B = new Candidate(P, "B");
+    private final Candidate C = new Candidate(Q, "C");
+    private final Candidate D = new Candidate(Q, "D");
+    private final Candidate E = new Candidate(Q, "E");
+
+    @Test
+    public void addMergesDuplicateRowsTest()
+    {
+        final var box = BallotBox.builder()
+            .add(new Ballot(list(A, B), P), 2)
+            .add(new Ballot(list(A, B), Q), 1)
+            .add(new Ballot(list(B, A), P), 1)
+            .add(new Ballot(list(A, B), P), 3)
+            .build();
+        assertEquals(3, box.size());
+        assertEquals(6, box.getNumberOfChoices());
+        assertBallot(box, 0, 5, P, A, B);
+        assertBallot(box, 1, 1, Q, A, B);
+        assertBallot(box, 2, 1, P, B, A);
+        assertEquals(new Decimal(7), box.getTotalCount());
+
+        final var doubled = box.add(box);
+        assertEquals(3, doubled.size());
+        assertBallot(doubled, 0, 10, P, A, B);
+        assertBallot(doubled, 1, 2, Q, A, B);
+        assertBallot(doubled, 2, 2, P, B, A);
+
+        final var other = BallotBox.builder()
+            .add(new Ballot(list(C), Q), 4)
+            .add(new Ballot(list(B, A), P), 2);
+        final var merged = box.editor().add(other).build();
+        assertEquals(4, merged.size());
+        assertBallot(merged, 0, 5, P, A, B);
+        assertBallot(merged, 1, 1, Q, A, B);
+        assertBallot(merged, 2, 3, P, B, A);
+        assertBallot(merged, 3, 4, Q, C);
+        assertEquals(7, merged.getNumberOfChoices());
+    }
+
+    @Test
+    public void toPrefixBallotsTest()
+    {
+        final var box = BallotBox.builder()
+            .add(new Ballot(list(A, B, C), P), 2)
+            .add(new Ballot(list(D), Q), 1)
+            .add(new Ballot(list(A, B, D), P), 3)
+            .add(new Ballot(list(A, C), P), 1)
+            .build();
+        assertSame(box, box.toPrefixBallots(3));
+
+        final var prefix = box.toPrefixBallots(2);
+        assertEquals(3, prefix.size());
+        assertEquals(5, prefix.getNumberOfChoices());
+        assertBallot(prefix, 0, 5, P, A, B);
+        assertBallot(prefix, 1, 1, Q, D);
+        assertBallot(prefix, 2, 1, P, A, C);
+        assertEquals(box.getTotalCount(), prefix.getTotalCount());
+        assertPostings(prefix);
+
+        final var single = box.toSingleChoiceBallots();
+        assertEquals(2, single.size());
+        assertBallot(single, 0, 6, P, A);
+        assertBallot(single, 1, 1, Q, D);
+    }
+
+    @Test
+    public void removeAndTransferTest()
+    {
+        final var box = BallotBox.builder()
+            .add(new Ballot(list(A, B, C), P), 4)
+            .add(new Ballot(list(B, A), P), 2)
+            .add(new Ballot(list(A), P), 1)
+            .add(new Ballot(list(C, D), Q), 3)
+            .add(new Ballot(list(A, B), P), 2)
+            .build();
+        assertSame(box, box.removeAndTransfer(E, new Decimal("0.5")));
+
+        final var removed = box.removeAndTransfer(A, new Decimal("0.5"));
+        assertEquals(3, removed.size());
+        assertBallot(removed, 0, 2, P, B, C);
+        assertBallot(removed, 1, 3, P, B);
+        assertBallot(removed, 2, 3, Q, C, D);
+        assertEquals(new Decimal(8), removed.getTotalCount());
+
+        final var dropped = box.removeAndTransfer(A, Decimal.ZERO);
+        assertEquals(2, dropped.size());
+        assertBallot(dropped, 0, 2, P, B);
+        assertBallot(dropped, 1, 3, Q, C, D);
+    }
+
+    @Test
+    public void postingsAfterMutationTest()
+    {
+        final var box = BallotBox.builder()
+            .add(new Ballot(list(A, B, C), P), 4)
+            .add(new Ballot(list(B, A), P), 2)
+            .add(new Ballot(list(C, D), Q), 3)
+            .add(new Ballot(list(D, A), Q), 1)
+            .build();
+        final var a = box.getCandidateOrdinals().ordinal(A);
+        final var d = box.getCandidateOrdinals().ordinal(D);
+        assertArrayEquals(new int[]{0, 1, 3}, box.getBallotsRanking(a));
+        assertArrayEquals(new int[]{2, 3}, box.getBallotsRanking(d));
+        assertPostings(box);
+
+        final var removed = box.removeAndTransfer(A, new Decimal("0.5"));
+        assertArrayEquals(new int[0], removed.getBallotsRanking(a));
+        assertArrayEquals(new int[]{2, 3}, removed.getBallotsRanking(d));
+        assertPostings(removed);
+        assertArrayEquals(new int[]{0, 1, 3}, box.getBallotsRanking(a));
+
+        final var added = removed.add(BallotBox.builder().add(new Ballot(list(E, A), P)).build());
+        assertArrayEquals(new int[]{4}, added.getBallotsRanking(added.getCandidateOrdinals().ordinal(A)));
+        assertPostings(added);
+        assertPostings(box.toPrefixBallots(1));
+    }
+
+    @Test
+    public void collectSumMatchesRepeatedAddTest()
+    {
+        final var boxes = createBoxes();
+        final var expected = boxes.reduce(BallotBox.Empty, BallotBox::add);
+        assertSameBallots(expected, boxes.stream().collect(BallotBox.collectSum()));
+        assertSameBallots(expected, boxes.stream().parallel().collect(BallotBox.collectSum()));
+    }
+
+    /**
+     * Boxes that each see the candidates in a different order so merging them has to map
+     * every box's ordinals onto the combined ones.
+     */
+    private JImmutableList<BallotBox> createBoxes()
+    {
+        final var candidates = list(A, B, C, D, E);
+        final JImmutableList.Builder<BallotBox> answer = listBuilder();
+        for (int i = 0; i < 40; ++i) {
+            final var builder = BallotBox.builder();
+            for (int length = 1; length <= 3; ++length) {
+                final JImmutableList.Builder<Candidate> choices = listBuilder();
+                for (int c = 0; c < length; ++c) {
+                    choices.add(candidates.get((i + c * (1 + i % 3)) % candidates.size()));
+                }
+                builder.add(new Ballot(choices.build(), length % 2 == 0 ? P : Q), 1 + i % 4);
+            }
+            answer.add(builder.build());
+        }
+        return answer.build();
+    }
+
+    private static void assertBallot(BallotBox box,
+                                     int ballot,
+                                     int count,
+                                     Party party,
+                                     Candidate... choices)
+    {
+        assertEquals(new Ballot(list(choices), party), box.getBallot(ballot));
+        assertEquals(new Decimal(count), box.getCount(ballot));
+    }
+
+    /**
+     * Compares every candidate's postings to a scan of the ballots.
+     */
+    private static void assertPostings(BallotBox box)
+    {
+        for (int c = 0; c < box.getCandidateOrdinals().size(); ++c) {
+            final var expected = new ArrayList<Integer>();
+            for (int b = 0; b < box.size(); ++b) {
+                for (int i = 0; i < box.getChoiceCount(b); ++i) {
+                    if (box.getChoice(b, i) == c) {
+                        expected.add(b);
+                    }
+                }
+            }
+            assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), box.getBallotsRanking(c));
+        }
+    }
+
+    private static void assertSameBallots(BallotBox expected,
+                                          BallotBox actual)
+    {
+        assertEquals(expected.size(), actual.size());
+        for (int b = 0; b < expected.size(); ++b) {
+            assertEquals(expected.getBallot(b), actual.getBallot(b));
+            assertEquals(expected.getCount(b), actual.getCount(b));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.burtonzone.election;
+
+import static com.burtonzone.election.BallotTrie.NONE;
+import static com.burtonzone.election.BallotTrie.ROOT;
+import static org.javimmutable.collections.util.JImmutables.*;
+import static org.junit.Assert.*;
+
+import com.burtonzone.common.Decimal;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class BallotTrieTest
+{
+    private final Party P = new Party("P", "P", new LinearPosition(10));
+    private final Party Q = new Party("Q", "Q", new LinearPosition(20));
+    private final Candidate A = new Candidate(P, "A");
+    private final Candidate B = new Candidate(P, "B");
+    private final Candidate C = new Candidate(Q, "C");
+    private final Candidate D = new Candidate(Q, "D");
+
+    @Test
+    public void weightsMatchBallotsTest()
+    {
+        final var box = createBox();
+        final var trie = box.getTrie();
+        assertSame(box, trie.getBallots());
+        assertEquals(box.getTotalCount(), trie.getWeight(ROOT));
+        assertEquals(NONE, trie.getCandidate(ROOT));
+        // A, A-B, A-B-C, A-C, B, B-A, C, C-D, D
+        assertEquals(10, trie.size());
+        assertTrieMatchesBox(trie);
+    }
+
+    @Test
+    public void weightsMatchAfterMutationTest()
+    {
+        final var box = createBox();
+        assertTrieMatchesBox(box.removeAndTransfer(A, new Decimal("0.5")).getTrie());
+        assertTrieMatchesBox(box.toPrefixBallots(1).getTrie());
+        assertTrieMatchesBox(box.add(box).getTrie());
+        assertTrieMatchesBox(BallotBox.Empty.getTrie());
+    }
+
+    private BallotBox createBox()
+    {
+        return BallotBox.builder()
+            .add(new Ballot(list(A, B, C), P), 4)
+            .add(new Ballot(list(A, B), P), 2)
+            .add(new Ballot(list(A, B), Q), 1)
+            .add(new Ballot(list(A, C), Q), 3)
+            .add(new Ballot(list(B, A), P), 2)
+            .add(new Ballot(list(B), P), 5)
+            .add(new Ballot(list(C, D), Q), 3)
+            .add(new Ballot(list(D), Q), 1)
+            .build();
+    }
+
+    /**
+     * Walks the trie and compares every node to the ballots in the box: its weight must be the
+     * total count of the ballots starting with its path and its ballots must be exactly the ones
+     * whose choices equal its path.
+     */
+    private static void assertTrieMatchesBox(BallotTrie trie)
+    {
+        final var box = trie.getBallots();
+        final var visits = new int[box.size()];
+        assertNodeMatchesBox(trie, ROOT, new int[0], visits);
+        for (int visit : visits) {
+            assertEquals(1, visit);
+        }
+    }
+
+    private static void assertNodeMatchesBox(BallotTrie trie,
+                                             int node,
+                                             int[] path,
+                                             int[] visits)
+    {
+        final var box = trie.getBallots();
+        var weight = Decimal.ZERO;
+        for (int b = 0; b < box.size(); ++b) {
+            if (startsWith(box, b, path)) {
+                weight = weight.plus(box.getCount(b));
+            }
+        }
+        assertEquals(weight, trie.getWeight(node));
+        for (int b = trie.getFirstBallot(node); b != NONE; b = trie.getNextBallot(b)) {
+            assertEquals(path.length, box.getChoiceCount(b));
+            assertTrue(startsWith(box, b, path));
+            visits[b] += 1;
+        }
+        for (int child = trie.getFirstChild(node); child != NONE; child = trie.getNextSibling(child)) {
+            final var childPath = Arrays.copyOf(path, path.length + 1);
+            childPath[path.length] = trie.getCandidate(child);
+            assertNodeMatchesBox(trie, child, childPath, visits);
+        }
+    }
+
+    private static boolean startsWith(BallotBox box,
+                                      int ballot,
+                                      int[] path)
+    {
+        if (box.getChoiceCount(ballot) < path.length) {
+            return false;
+        }
+        for (int i = 0; i < path.length; ++i) {
+            if (box.getChoice(ballot, i) != path[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
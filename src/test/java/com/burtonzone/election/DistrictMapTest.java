@@ -0,0 +1,68 @@
+package com.burtonzone.election;
+
+import static org.junit.Assert.*;
+
+import com.burtonzone.common.Rand;
+import com.burtonzone.common.WorkPool;
+import com.burtonzone.runner.PluralityRunner;
+import org.javimmutable.collections.JImmutableList;
+import org.junit.Test;
+
+public class DistrictMapTest
+{
+    @Test
+    public void parallelMatchesSequentialTest()
+    {
+        final var sequential = createElections(WorkPool.Sequential);
+        final JImmutableList<Election> parallel;
+        try (var workPool = new WorkPool(3)) {
+            parallel = createElections(workPool);
+        }
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); ++i) {
+            final var expected = sequential.get(i);
+            final var actual = parallel.get(i);
+            assertEquals(expected.getCandidates(), actual.getCandidates());
+            assertEquals(expected.getBallots().size(), actual.getBallots().size());
+            for (int b = 0; b < expected.getBallots().size(); ++b) {
+                assertEquals(expected.getBallots().getBallot(b), actual.getBallots().getBallot(b));
+                assertEquals(expected.getBallots().getCount(b), actual.getBallots().getCount(b));
+            }
+        }
+    }
+
+    @Test
+    public void streamedReportMatchesCollectedTest()
+    {
+        final var runner = PluralityRunner.singleVote();
+        final var rand = new Rand(11);
+        final var factory = new PositionalElectionFactory(rand, IssueSpaces.Grid.create(rand));
+        final var districts = createDistricts(factory);
+        final var expected = runner.runElections(districts.create(factory, 1, WorkPool.Sequential)).getReport();
+        assertEquals(expected.getRows(), runner.reportElections(districts.forRound(factory, 1), WorkPool.Sequential).getRows());
+        try (var workPool = new WorkPool(3)) {
+            assertEquals(expected.getRows(), runner.reportElections(districts.forRound(factory, 1), workPool).getRows());
+        }
+    }
+
+    private static JImmutableList<Election> createElections(WorkPool workPool)
+    {
+        final var rand = new Rand(11);
+        final var factory = new PositionalElectionFactory(rand, IssueSpaces.Grid.create(rand));
+        final var districts = createDistricts(factory);
+        districts.create(factory, 1, workPool);
+        return districts.create(factory, 2, workPool).getElections();
+    }
+
+    private static DistrictMap createDistricts(PositionalElectionFactory factory)
+    {
+        final var settings = ElectionSettings.builder()
+            .parties(factory.createParties(4))
+            .maxCandidateChoices(5)
+            .build();
+        return DistrictMap.builder()
+            .add(settings, 3, 12)
+            .add(settings, 1, 12)
+            .build();
+    }
+}
@@ -35,4 +35,13 @@ public class GridPositionTest
         var pos = new GridPosition(10, 90);
         assertSame(pos, pos.wrapped(0, 100));
     }
+
+    @Test
+    public void interned()
+    {
+        assertSame(GridPosition.of(-45, 145), GridPosition.of(-45, 145));
+        assertSame(GridPosition.of(50, 50), GridPosition.Center);
+        assertEquals(GridPosition.of(500, 7), GridPosition.of(500, 7));
+        assertSame(GridPosition.of(95, 80), GridPosition.of(-5, 20).wrapped(0, 100));
+    }
 }
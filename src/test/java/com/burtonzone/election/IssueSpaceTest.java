@@ -0,0 +1,26 @@
+package com.burtonzone.election;
+
+import static org.junit.Assert.*;
+
+import com.burtonzone.common.Rand;
+import org.junit.Test;
+
+public class IssueSpaceTest
+{
+    @Test
+    public void voterPositionWeightsTest()
+    {
+        final var outcomes = (long)Math.pow(2 * IssueSpace.MaxVoterDistance + 1, IssueSpace.VoterPositionBias);
+
+        final var linear = IssueSpaces.Linear.create(new Rand(11));
+        final var linearWeights = linear.voterPositionWeights(new LinearPosition(10));
+        assertEquals(outcomes, linearWeights.values().stream().mapToLong(Long::longValue).sum());
+        assertTrue(linearWeights.keySet().stream().allMatch(Position::isValid));
+
+        final var grid = IssueSpaces.Grid.create(new Rand(11));
+        final var gridWeights = grid.voterPositionWeights(new GridPosition(20, 90));
+        assertEquals(outcomes * outcomes, gridWeights.values().stream().mapToLong(Long::longValue).sum());
+        assertTrue(gridWeights.keySet().stream().allMatch(Position::isValid));
+        assertTrue(gridWeights.get(new GridPosition(20, 90)) > gridWeights.get(new GridPosition(30, 80)));
+    }
+}
@@ -0,0 +1,73 @@
+package com.burtonzone.election;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.javimmutable.collections.JImmutableList;
+import org.junit.Test;
+
+public class SpatialIndexTest
+{
+    @Test
+    public void gridTest()
+    {
+        final var random = new Random(42);
+        verifyMatchesSort(random, () -> new GridPosition(random.nextInt(101), random.nextInt(101)));
+    }
+
+    @Test
+    public void linearTest()
+    {
+        final var random = new Random(42);
+        verifyMatchesSort(random, () -> new LinearPosition(random.nextInt(101)));
+    }
+
+    @Test
+    public void emptyTest()
+    {
+        final var index = SpatialIndex.<Position>of(list(), Function.identity());
+        assertEquals(0, index.nearest(GridPosition.Center).size());
+    }
+
+    private static void verifyMatchesSort(Random random,
+                                          Supplier<Position> positions)
+    {
+        for (int loop = 0; loop < 20; ++loop) {
+            // small ranges produce plenty of items at identical distances
+            JImmutableList<Position> items = list();
+            final var size = 1 + random.nextInt(60);
+            for (int i = 0; i < size; ++i) {
+                items = items.insertLast(positions.get());
+            }
+            final var index = SpatialIndex.of(items, Function.identity());
+            for (int query = 0; query < 20; ++query) {
+                final var center = positions.get();
+                final var maxSquaredDistance = random.nextInt(2000);
+                final var maxItems = 1 + random.nextInt(size + 1);
+                final var expected = items.stream()
+                    .filter(p -> p.squaredDistanceTo(center) <= maxSquaredDistance)
+                    .sorted(new DistanceComparator<>(center, Function.identity()))
+                    .limit(maxItems)
+                    .collect(listCollector());
+                assertSame(expected, index.nearest(center, maxSquaredDistance, maxItems));
+                assertSame(items.stream()
+                               .sorted(new DistanceComparator<>(center, Function.identity()))
+                               .collect(listCollector()),
+                           index.nearest(center));
+            }
+        }
+    }
+
+    private static void assertSame(JImmutableList<Position> expected,
+                                   JImmutableList<Position> actual)
+    {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            // positions can be equal so compare identity to verify tie order
+            assertTrue(expected.get(i) == actual.get(i));
+        }
+    }
+}
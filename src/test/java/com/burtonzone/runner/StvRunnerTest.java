@@ -4,14 +4,23 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import com.burtonzone.common.Decimal;
+import com.burtonzone.common.Rand;
 import com.burtonzone.election.Candidate;
 import com.burtonzone.election.CandidateVotes;
 import com.burtonzone.election.Election;
+import com.burtonzone.election.ElectionSettings;
+import com.burtonzone.election.IssueSpaces;
 import com.burtonzone.election.LinearPosition;
 import com.burtonzone.election.Party;
+import com.burtonzone.election.PositionalElectionFactory;
+import java.util.Arrays;
+import java.util.Collection;
 import org.javimmutable.collections.util.JImmutables;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
 
+@RunWith(Parameterized.class)
 public class StvRunnerTest
 {
     private final Party P = new Party("P", "P", new LinearPosition(10));
@@ -20,7 +29,19 @@ public class StvRunnerTest
     private final Candidate C = new Candidate(P, "C");
     private final Candidate D = new Candidate(P, "D");
     private final Candidate E = new Candidate(P, "E");
-    private final StvRunner runner = new StvRunner();
+    private final StvRunner runner;
+
+    public StvRunnerTest(String name,
+                         StvRunner runner)
+    {
+        this.runner = runner;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> runners()
+    {
+        return Arrays.asList(new Object[][]{{"list", new StvRunner()}, {"trie", StvRunner.trie()}});
+    }
 
     @Test
     public void sampleWithTieBreaker()
@@ -237,6 +258,35 @@ public class StvRunnerTest
         assertEquals(new Decimal("2"), result.getWasted());
     }
 
+    @Test
+    public void matchesListWorksheetOnGeneratedElections()
+    {
+        final var listRunner = new StvRunner();
+        final var oldMode = Decimal.getMode();
+        try {
+            for (Decimal.Mode mode : Decimal.Mode.values()) {
+                Decimal.setMode(mode);
+                final var rand = new Rand(5);
+                final var factory = new PositionalElectionFactory(rand, IssueSpaces.Grid.create(rand));
+                for (int i = 0; i < 20; ++i) {
+                    final var settings = ElectionSettings.builder()
+                        .parties(factory.createParties(5))
+                        .numberOfSeats(5)
+                        .votersPerSeat(200)
+                        .maxCandidateChoices(10)
+                        .build();
+                    final var election = factory.createElection(settings);
+                    final var expected = listRunner.runElection(election);
+                    final var actual = runner.runElection(election);
+                    assertEquals(mode + " " + i, expected.getElected(), actual.getElected());
+                    assertEquals(mode + " " + i, expected.getRounds(), actual.getRounds());
+                }
+            }
+        } finally {
+            Decimal.setMode(oldMode);
+        }
+    }
+
     private static CandidateVotes cv(Candidate candidate,
                                      String votes)
     {